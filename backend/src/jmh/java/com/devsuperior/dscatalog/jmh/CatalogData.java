@@ -0,0 +1,35 @@
+package com.devsuperior.dscatalog.jmh;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.devsuperior.dscatalog.entities.Category;
+import com.devsuperior.dscatalog.entities.Product;
+
+final class CatalogData {
+	
+	private static final String[] CATEGORIES = { "Livros", "Eletronicos", "Computadores" };
+	
+	private CatalogData() {
+	}
+	
+	// Same shape as import.sql: most products in one category, some in two
+	static List<Product> products(int count) {
+		List<Category> categories = new ArrayList<>();
+		for (int i = 0; i < CATEGORIES.length; i++) {
+			categories.add(new Category((long) i + 1, CATEGORIES[i]));
+		}
+		List<Product> products = new ArrayList<>(count);
+		for (int i = 1; i <= count; i++) {
+			Product product = new Product((long) i, "PC Gamer " + i, "Lorem ipsum dolor sit amet, consectetur adipiscing elit.",
+					1200.0 + i, "https://example.com/" + i + "-big.jpg", Instant.parse("2020-07-13T20:50:07.12345Z"));
+			product.getCategories().add(categories.get(i % categories.size()));
+			if (i % 10 == 0) {
+				product.getCategories().add(categories.get((i + 1) % categories.size()));
+			}
+			products.add(product);
+		}
+		return products;
+	}
+}
@@ -0,0 +1,74 @@
+package com.devsuperior.dscatalog.jmh;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.GrantedAuthority;
+
+import com.devsuperior.dscatalog.dto.CategoryDTO;
+import com.devsuperior.dscatalog.dto.ProductDTO;
+import com.devsuperior.dscatalog.entities.Category;
+import com.devsuperior.dscatalog.entities.Product;
+import com.devsuperior.dscatalog.entities.Role;
+import com.devsuperior.dscatalog.entities.User;
+
+/**
+ * Entity to DTO mapping for one page of products, and the authorities
+ * computed from a user on every authenticated request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DtoMappingBenchmarks {
+	
+	@Param({ "12", "100" })
+	private int pageSize;
+	
+	private List<Product> products;
+	private Category category;
+	private User user;
+	
+	@Setup
+	public void setUp() {
+		products = CatalogData.products(pageSize);
+		category = products.get(0).getCategories().iterator().next();
+		user = new User(1L, "Maria", "Green", "maria@gmail.com", "N/A");
+		user.getRoles().add(new Role(1L, "ROLE_OPERATOR"));
+		user.getRoles().add(new Role(2L, "ROLE_ADMIN"));
+	}
+	
+	@Benchmark
+	public List<ProductDTO> productDtoWithCategories() {
+		List<ProductDTO> result = new ArrayList<>(products.size());
+		for (Product product : products) {
+			result.add(new ProductDTO(product, product.getCategories()));
+		}
+		return result;
+	}
+	
+	@Benchmark
+	public CategoryDTO categoryDto() {
+		return new CategoryDTO(category);
+	}
+	
+	@Benchmark
+	public Collection<? extends GrantedAuthority> userAuthorities() {
+		return user.getAuthorities();
+	}
+}
@@ -0,0 +1,58 @@
+package com.devsuperior.dscatalog.jmh;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.devsuperior.dscatalog.dto.ProductDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Jackson serialization of a Page of products, as GET /products writes it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PageSerializationBenchmarks {
+	
+	@Param({ "12", "100" })
+	private int pageSize;
+	
+	private ObjectMapper objectMapper;
+	private Page<ProductDTO> page;
+	
+	@Setup
+	public void setUp() {
+		// Same builder Spring Boot uses for the MVC ObjectMapper
+		objectMapper = Jackson2ObjectMapperBuilder.json().build();
+		List<ProductDTO> content = CatalogData.products(pageSize).stream()
+				.map(x -> new ProductDTO(x, x.getCategories()))
+				.collect(Collectors.toList());
+		page = new PageImpl<>(content, PageRequest.of(0, pageSize), 1_000_000);
+	}
+	
+	@Benchmark
+	public byte[] writePage() throws JsonProcessingException {
+		return objectMapper.writeValueAsBytes(page);
+	}
+}
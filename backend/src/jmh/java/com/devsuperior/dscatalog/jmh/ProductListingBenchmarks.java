@@ -0,0 +1,117 @@
+package com.devsuperior.dscatalog.jmh;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.devsuperior.dscatalog.DscatalogApplication;
+import com.devsuperior.dscatalog.dto.ProductDTO;
+import com.devsuperior.dscatalog.entities.Product;
+import com.devsuperior.dscatalog.repositories.ProductFilter;
+import com.devsuperior.dscatalog.repositories.ProductRepository;
+
+/**
+ * One deep page of the product listing built from entities (product page plus
+ * a fetch join for the categories) against the same page read as a DTO
+ * projection, over the H2 test database seeded with the given number of
+ * products. The persistence context is cleared after each call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ProductListingBenchmarks {
+	
+	@Param({ "1000", "100000" })
+	private int products;
+	
+	private ConfigurableApplicationContext context;
+	private ProductRepository productRepository;
+	private EntityManagerFactory entityManagerFactory;
+	private TransactionTemplate transactionTemplate;
+	private PageRequest pageRequest;
+	
+	@Setup(Level.Trial)
+	public void setUp() {
+		context = new SpringApplicationBuilder(DscatalogApplication.class)
+				.web(WebApplicationType.NONE)
+				.properties(
+						"spring.profiles.active=test",
+						"spring.datasource.url=jdbc:h2:mem:jmh",
+						"spring.jpa.show-sql=false",
+						"spring.jpa.properties.hibernate.generate_statistics=false",
+						"catalog.sql.slow-query.enabled=false",
+						"logging.level.root=WARN")
+				.run();
+		productRepository = context.getBean(ProductRepository.class);
+		entityManagerFactory = context.getBean(EntityManagerFactory.class);
+		transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+		transactionTemplate.setReadOnly(true);
+		pageRequest = PageRequest.of(40, 24, Sort.by("name"));
+		
+		JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+		jdbcTemplate.update("INSERT INTO tb_product (name, description, price, img_url, date, version) "
+				+ "SELECT CONCAT('Product ', X), 'Seeded for benchmarks', 100.0 + X, '', CURRENT_TIMESTAMP, 0 "
+				+ "FROM SYSTEM_RANGE(1, ?)", products);
+		jdbcTemplate.update("INSERT INTO tb_product_category (product_id, category_id) "
+				+ "SELECT id, MOD(id, 3) + 1 FROM tb_product WHERE description = 'Seeded for benchmarks'");
+		jdbcTemplate.execute("ANALYZE");
+	}
+	
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+	}
+	
+	@Benchmark
+	public List<ProductDTO> entityPath() {
+		return transactionTemplate.execute(status -> {
+			Page<Product> page = productRepository.find(null, "", pageRequest);
+			productRepository.findProductsWithCategories(page.getContent());
+			List<ProductDTO> result = page.map(x -> new ProductDTO(x, x.getCategories())).getContent();
+			currentEntityManager().clear();
+			return result;
+		});
+	}
+	
+	@Benchmark
+	public List<ProductDTO> projectionPath() {
+		return transactionTemplate.execute(status -> {
+			List<ProductDTO> result = productRepository.findProjected(ProductFilter.of(List.of(), false, ""), pageRequest);
+			currentEntityManager().clear();
+			return result;
+		});
+	}
+	
+	private EntityManager currentEntityManager() {
+		return EntityManagerFactoryUtils.getTransactionalEntityManager(entityManagerFactory);
+	}
+}
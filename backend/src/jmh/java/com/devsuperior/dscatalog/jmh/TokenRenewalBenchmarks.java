@@ -0,0 +1,124 @@
+package com.devsuperior.dscatalog.jmh;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.json.JacksonJsonParser;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import com.devsuperior.dscatalog.DscatalogApplication;
+
+/**
+ * A renewal storm on /oauth/token: 8 clients renew 25 tokens each at once,
+ * either by resending their credentials or by exchanging a refresh token.
+ * The refresh tokens are obtained before each iteration and are not timed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, batchSize = TokenRenewalBenchmarks.RENEWALS)
+@Measurement(iterations = 5, batchSize = TokenRenewalBenchmarks.RENEWALS)
+@Threads(8)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class TokenRenewalBenchmarks {
+	
+	static final int RENEWALS = 25;
+	
+	private ConfigurableApplicationContext context;
+	private MockMvc mockMvc;
+	private String clientId;
+	private String clientSecret;
+	
+	@State(Scope.Thread)
+	public static class RefreshTokens {
+		
+		private final Deque<String> tokens = new ArrayDeque<>();
+		
+		@Setup(Level.Iteration)
+		public void setUp(TokenRenewalBenchmarks benchmark) throws Exception {
+			while (tokens.size() < RENEWALS) {
+				MvcResult result = benchmark.perform(benchmark.passwordGrantRequest());
+				String body = result.getResponse().getContentAsString();
+				tokens.add(new JacksonJsonParser().parseMap(body).get("refresh_token").toString());
+			}
+		}
+	}
+	
+	@Setup(Level.Trial)
+	public void setUp() {
+		context = new SpringApplicationBuilder(DscatalogApplication.class)
+				.web(WebApplicationType.SERVLET)
+				.properties(
+						"spring.profiles.active=test",
+						"spring.datasource.url=jdbc:h2:mem:jmh",
+						"spring.jpa.show-sql=false",
+						"spring.jpa.properties.hibernate.generate_statistics=false",
+						"catalog.sql.slow-query.enabled=false",
+						"server.port=0",
+						"logging.level.root=WARN")
+				.run();
+		mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context).apply(springSecurity()).build();
+		clientId = context.getEnvironment().getProperty("security.oauth2.client.client-id");
+		clientSecret = context.getEnvironment().getProperty("security.oauth2.client.client-secret");
+	}
+	
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+	}
+	
+	@Benchmark
+	public MvcResult passwordGrant() throws Exception {
+		return perform(passwordGrantRequest());
+	}
+	
+	@Benchmark
+	public MvcResult refreshGrant(RefreshTokens refreshTokens) throws Exception {
+		return perform(post("/oauth/token")
+				.param("grant_type", "refresh_token")
+				.param("refresh_token", refreshTokens.tokens.remove())
+				.with(httpBasic(clientId, clientSecret)));
+	}
+	
+	private MockHttpServletRequestBuilder passwordGrantRequest() {
+		return post("/oauth/token")
+				.param("grant_type", "password")
+				.param("username", "maria@gmail.com")
+				.param("password", "123456")
+				.with(httpBasic(clientId, clientSecret));
+	}
+	
+	// A failed grant would be far cheaper than a real one, so it must not be counted
+	private MvcResult perform(MockHttpServletRequestBuilder request) throws Exception {
+		MvcResult result = mockMvc.perform(request).andReturn();
+		if (result.getResponse().getStatus() != 200) {
+			throw new IllegalStateException("Token request failed with status " + result.getResponse().getStatus());
+		}
+		return result;
+	}
+}
@@ -0,0 +1,64 @@
+package com.devsuperior.dscatalog.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.token.store.JwtAccessTokenConverter;
+import org.springframework.security.oauth2.provider.token.store.JwtTokenStore;
+
+import com.devsuperior.dscatalog.config.CachingJwtTokenStore;
+import com.devsuperior.dscatalog.tests.TokenFactory;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * The token reads DefaultTokenServices.loadAuthentication makes on every
+ * authenticated request, with the plain JwtTokenStore and with
+ * CachingJwtTokenStore once the token has been verified.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TokenStoreBenchmarks {
+	
+	private JwtTokenStore plainStore;
+	private JwtTokenStore cachingStore;
+	private String token;
+	
+	@Setup
+	public void setUp() throws Exception {
+		JwtAccessTokenConverter converter = TokenFactory.createConverter();
+		token = TokenFactory.createEncodedToken(converter, "maria@gmail.com", 3600);
+		plainStore = new JwtTokenStore(converter);
+		cachingStore = new CachingJwtTokenStore(converter, 100, null, new SimpleMeterRegistry());
+	}
+	
+	@Benchmark
+	public OAuth2Authentication plainStore() {
+		return readBoth(plainStore);
+	}
+	
+	@Benchmark
+	public OAuth2Authentication cachingStore() {
+		return readBoth(cachingStore);
+	}
+	
+	private OAuth2Authentication readBoth(JwtTokenStore tokenStore) {
+		OAuth2AccessToken accessToken = tokenStore.readAccessToken(token);
+		return tokenStore.readAuthentication(accessToken);
+	}
+}
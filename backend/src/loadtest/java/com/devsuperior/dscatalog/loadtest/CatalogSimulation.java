@@ -0,0 +1,170 @@
+package com.devsuperior.dscatalog.loadtest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Properties;
+import java.util.Random;
+import java.util.function.Function;
+
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.devsuperior.dscatalog.components.CategoryBitmapIndex;
+import com.devsuperior.dscatalog.components.ProductNameIndex;
+
+/**
+ * Boots the app on the test profile, tops the catalog up with synthetic
+ * products and drives an open-model request mix against it over HTTP. Fails
+ * when a scenario misses its latency SLO or too many requests fail.
+ * Not part of the regular suite. Run with: mvn -Ploadtest test
+ */
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT, properties = {
+		"spring.jpa.show-sql=false",
+		"spring.jpa.properties.hibernate.generate_statistics=false",
+		"logging.level.org.hibernate=WARN" })
+public class CatalogSimulation {
+	
+	private static Logger logger = LoggerFactory.getLogger(CatalogSimulation.class);
+	
+	private static final Duration TIMEOUT = Duration.ofMinutes(1);
+	
+	private static final String[] NAMES = { "PC Gamer", "Notebook", "Smart TV", "Livro" };
+	
+	@LocalServerPort
+	private int port;
+	
+	@Value("${security.oauth2.client.client-id}")
+	private String clientId;
+
+	@Value("${security.oauth2.client.client-secret}")
+	private String clientSecret;
+	
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+	
+	@Autowired
+	private ProductNameIndex productNameIndex;
+	
+	@Autowired
+	private CategoryBitmapIndex categoryBitmapIndex;
+	
+	private Properties settings;
+	
+	@Test
+	public void catalogMixShouldMeetLatencySlos() throws Exception {
+		settings = settings();
+		int products = intSetting("loadtest.products");
+		seed(products);
+		
+		int lastPage = products / 12;
+		List<Scenario> scenarios = List.of(
+				scenario("products-filtered", 40, random -> get("/products?page=" + random.nextInt(5)
+						+ "&size=12&categoryIds=" + (1 + random.nextInt(3)) + "&name=" + NAMES[random.nextInt(NAMES.length)].replace(" ", "%20")
+						+ "&sort=name,asc")),
+				scenario("products-deep-page", 10, random -> get("/products?size=12&sort=name,asc&page=" + random.nextInt(lastPage))),
+				scenario("product-by-id", 30, random -> get("/products/" + (1 + random.nextInt(products + 25)))),
+				scenario("categories", 15, random -> get("/categories")),
+				scenario("oauth-token", 5, random -> token()));
+		
+		HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+		new OpenModelLoad(client, scenarios).run(intSetting("loadtest.rate"), intSetting("loadtest.warmup-seconds"),
+				intSetting("loadtest.duration-seconds"));
+		
+		List<String> violations = new ArrayList<>();
+		double maxErrorRatio = Double.parseDouble(settings.getProperty("loadtest.max-error-ratio"));
+		StringBuilder report = new StringBuilder(String.format("%n%-20s %8s %8s %8s %8s %8s %7s", "scenario", "count", "p50 ms",
+				"p99 ms", "p999 ms", "max ms", "errors"));
+		for (Scenario scenario : scenarios) {
+			Histogram histogram = scenario.getHistogram();
+			long p99 = millis(histogram.getValueAtPercentile(99.0));
+			long p999 = millis(histogram.getValueAtPercentile(99.9));
+			report.append(String.format("%n%-20s %8d %8d %8d %8d %8d %7d", scenario.getName(), histogram.getTotalCount(),
+					millis(histogram.getValueAtPercentile(50.0)), p99, p999, millis(histogram.getMaxValue()), scenario.getErrors()));
+			if (p99 > scenario.getP99Millis()) {
+				violations.add(scenario.getName() + " p99 " + p99 + " ms > " + scenario.getP99Millis() + " ms");
+			}
+			if (p999 > scenario.getP999Millis()) {
+				violations.add(scenario.getName() + " p999 " + p999 + " ms > " + scenario.getP999Millis() + " ms");
+			}
+			if (scenario.getErrors() > histogram.getTotalCount() * maxErrorRatio) {
+				violations.add(scenario.getName() + " " + scenario.getErrors() + " failed requests");
+			}
+		}
+		logger.info("Load test at {} req/s over {} products:{}", intSetting("loadtest.rate"), products, report);
+		
+		Assertions.assertTrue(violations.isEmpty(), "SLO violations: " + violations);
+	}
+	
+	private void seed(int products) {
+		jdbcTemplate.update("INSERT INTO tb_product (name, description, price, img_url, date, version) "
+				+ "SELECT CONCAT(CASE MOD(X, 4) WHEN 0 THEN 'PC Gamer ' WHEN 1 THEN 'Notebook ' WHEN 2 THEN 'Smart TV ' "
+				+ "ELSE 'Livro ' END, X), 'Synthetic product', 100.0 + MOD(X, 5000), '', CURRENT_TIMESTAMP, 0 "
+				+ "FROM SYSTEM_RANGE(1, ?)", products);
+		jdbcTemplate.update("INSERT INTO tb_product_category (product_id, category_id) "
+				+ "SELECT id, MOD(id, 3) + 1 FROM tb_product WHERE description = 'Synthetic product'");
+		jdbcTemplate.update("INSERT INTO tb_product_category (product_id, category_id) "
+				+ "SELECT id, MOD(id + 1, 3) + 1 FROM tb_product WHERE description = 'Synthetic product' AND MOD(id, 10) = 0");
+		jdbcTemplate.execute("ANALYZE");
+		// The in-memory indexes were built from import.sql at startup
+		productNameIndex.load();
+		categoryBitmapIndex.load();
+	}
+	
+	private Scenario scenario(String name, int weight, Function<Random, HttpRequest> request) {
+		return new Scenario(name, weight, request, intSetting("loadtest.slo." + name + ".p99"),
+				intSetting("loadtest.slo." + name + ".p999"));
+	}
+	
+	private HttpRequest get(String path) {
+		return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).timeout(TIMEOUT).GET().build();
+	}
+	
+	private HttpRequest token() {
+		String credentials = Base64.getEncoder().encodeToString((clientId + ":" + clientSecret).getBytes(StandardCharsets.UTF_8));
+		return HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/oauth/token"))
+				.timeout(TIMEOUT)
+				.header("Authorization", "Basic " + credentials)
+				.header("Content-Type", "application/x-www-form-urlencoded")
+				.POST(HttpRequest.BodyPublishers.ofString("grant_type=password&username=maria@gmail.com&password=123456"))
+				.build();
+	}
+	
+	private int intSetting(String key) {
+		return Integer.parseInt(settings.getProperty(key));
+	}
+	
+	private static Properties settings() throws IOException {
+		Properties properties = new Properties();
+		try (InputStream in = CatalogSimulation.class.getResourceAsStream("/loadtest.properties")) {
+			properties.load(in);
+		}
+		for (String key : properties.stringPropertyNames()) {
+			String override = System.getProperty(key);
+			if (override != null) {
+				properties.setProperty(key, override);
+			}
+		}
+		return properties;
+	}
+	
+	private static long millis(long nanos) {
+		return nanos / 1_000_000;
+	}
+}
@@ -0,0 +1,66 @@
+package com.devsuperior.dscatalog.loadtest;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model load generator: requests arrive at a fixed rate whether or not
+ * earlier ones have completed, as with real users. Latency is measured from
+ * the moment a request was due, not from when it was actually sent, so a
+ * stalled server is not hidden by a stalled client (coordinated omission).
+ */
+public class OpenModelLoad {
+	
+	private final HttpClient client;
+	private final List<Scenario> scenarios;
+	private final int totalWeight;
+	private final Random random = new Random(42);
+	
+	public OpenModelLoad(HttpClient client, List<Scenario> scenarios) {
+		this.client = client;
+		this.scenarios = scenarios;
+		this.totalWeight = scenarios.stream().mapToInt(Scenario::getWeight).sum();
+	}
+	
+	public void run(int ratePerSecond, int warmupSeconds, int durationSeconds) {
+		long interval = TimeUnit.SECONDS.toNanos(1) / ratePerSecond;
+		long warmupArrivals = (long) ratePerSecond * warmupSeconds;
+		long arrivals = warmupArrivals + (long) ratePerSecond * durationSeconds;
+		List<CompletableFuture<?>> pending = new ArrayList<>();
+		
+		long start = System.nanoTime();
+		for (long i = 0; i < arrivals; i++) {
+			boolean measured = i >= warmupArrivals;
+			long due = start + i * interval;
+			long wait = due - System.nanoTime();
+			if (wait > 0) {
+				LockSupport.parkNanos(wait);
+			}
+			Scenario scenario = pick();
+			pending.add(client.sendAsync(scenario.newRequest(random), HttpResponse.BodyHandlers.discarding())
+					.whenComplete((response, error) -> {
+						if (measured) {
+							scenario.record(System.nanoTime() - due, error != null || response.statusCode() >= 400);
+						}
+					}));
+		}
+		CompletableFuture.allOf(pending.toArray(new CompletableFuture<?>[0])).exceptionally(e -> null).join();
+	}
+	
+	private Scenario pick() {
+		int n = random.nextInt(totalWeight);
+		for (Scenario scenario : scenarios) {
+			n -= scenario.getWeight();
+			if (n < 0) {
+				return scenario;
+			}
+		}
+		throw new IllegalStateException();
+	}
+}
@@ -0,0 +1,74 @@
+package com.devsuperior.dscatalog.loadtest;
+
+import java.net.http.HttpRequest;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * One kind of request in the mix: its share of arrivals, how to build it, the
+ * latencies recorded for it and the SLO it has to meet.
+ */
+public class Scenario {
+	
+	private final String name;
+	private final int weight;
+	private final Function<Random, HttpRequest> request;
+	private final long p99Millis;
+	private final long p999Millis;
+	
+	// Up to one minute with three significant digits
+	private final Recorder recorder = new Recorder(TimeUnit.MINUTES.toNanos(1), 3);
+	private final AtomicLong errors = new AtomicLong();
+	private Histogram histogram;
+	
+	public Scenario(String name, int weight, Function<Random, HttpRequest> request, long p99Millis, long p999Millis) {
+		this.name = name;
+		this.weight = weight;
+		this.request = request;
+		this.p99Millis = p99Millis;
+		this.p999Millis = p999Millis;
+	}
+	
+	public String getName() {
+		return name;
+	}
+	
+	public int getWeight() {
+		return weight;
+	}
+	
+	public HttpRequest newRequest(Random random) {
+		return request.apply(random);
+	}
+	
+	public void record(long latencyNanos, boolean error) {
+		recorder.recordValue(Math.min(latencyNanos, TimeUnit.MINUTES.toNanos(1)));
+		if (error) {
+			errors.incrementAndGet();
+		}
+	}
+	
+	public Histogram getHistogram() {
+		if (histogram == null) {
+			histogram = recorder.getIntervalHistogram();
+		}
+		return histogram;
+	}
+	
+	public long getErrors() {
+		return errors.get();
+	}
+	
+	public long getP99Millis() {
+		return p99Millis;
+	}
+	
+	public long getP999Millis() {
+		return p999Millis;
+	}
+}
@@ -0,0 +1,146 @@
+package com.devsuperior.dscatalog.components;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+import javax.annotation.PostConstruct;
+
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.devsuperior.dscatalog.repositories.ProductRepository;
+
+/**
+ * One compressed bitmap of product ids per category, built from
+ * tb_product_category and rebuilt periodically; writes made during a rebuild
+ * are replayed onto its result. Published bitmaps are never modified: writers
+ * clone the ones they touch and swap in a new map, so readers need no locking.
+ */
+@Component
+public class CategoryBitmapIndex {
+	
+	@Autowired
+	private ProductRepository productRepository;
+	
+	private final Object reloadLock = new Object();
+	private final AtomicReference<Map<Long, RoaringBitmap>> bitmaps = new AtomicReference<>(Collections.emptyMap());
+	// Writes made while a rebuild reads the table, replayed onto the rebuilt map; null when no rebuild runs
+	private List<Map<Long, ? extends Collection<Long>>> pending;
+	
+	@PostConstruct
+	@Scheduled(initialDelayString = "#{${catalog.search.index-reload-seconds} * 1000}",
+			fixedDelayString = "#{${catalog.search.index-reload-seconds} * 1000}")
+	public void load() {
+		synchronized (reloadLock) {
+			synchronized (this) {
+				pending = new ArrayList<>();
+			}
+			try {
+				Map<Long, RoaringBitmap> map = new HashMap<>();
+				for (Object[] row : productRepository.findAllCategoryLinks()) {
+					map.computeIfAbsent((Long) row[1], x -> new RoaringBitmap()).add(Math.toIntExact((Long) row[0]));
+				}
+				map.values().forEach(RoaringBitmap::runOptimize);
+				synchronized (this) {
+					bitmaps.set(Collections.unmodifiableMap(map));
+					List<Map<Long, ? extends Collection<Long>>> writes = pending;
+					pending = null;
+					writes.forEach(this::putAll);
+				}
+			}
+			finally {
+				synchronized (this) {
+					pending = null;
+				}
+			}
+		}
+	}
+	
+	// Products in any (or all) of the given categories; every product with a category when none is given
+	public RoaringBitmap filter(Collection<Long> categoryIds, boolean matchAll) {
+		Map<Long, RoaringBitmap> current = bitmaps.get();
+		if (categoryIds.isEmpty()) {
+			return FastAggregation.or(current.values().iterator());
+		}
+		
+		List<RoaringBitmap> selected = new ArrayList<>();
+		for (Long categoryId : categoryIds) {
+			RoaringBitmap bitmap = current.get(categoryId);
+			if (bitmap != null) {
+				selected.add(bitmap);
+			}
+			else if (matchAll) {
+				return new RoaringBitmap();
+			}
+		}
+		if (selected.isEmpty()) {
+			return new RoaringBitmap();
+		}
+		if (selected.size() == 1) {
+			return selected.get(0).clone();
+		}
+		return matchAll ? FastAggregation.and(selected.iterator()) : FastAggregation.or(selected.iterator());
+	}
+	
+	public Map<Long, Long> facets(RoaringBitmap products) {
+		Map<Long, Long> facets = new TreeMap<>();
+		bitmaps.get().forEach((categoryId, bitmap) -> {
+			long count = RoaringBitmap.andCardinality(products, bitmap);
+			if (count > 0) {
+				facets.put(categoryId, count);
+			}
+		});
+		return facets;
+	}
+	
+	public void put(Long productId, Collection<Long> categoryIds) {
+		putAll(Collections.singletonMap(productId, categoryIds));
+	}
+	
+	// One copy per call, so bulk loads clone each touched bitmap once rather than once per product
+	public synchronized void putAll(Map<Long, ? extends Collection<Long>> products) {
+		if (pending != null) {
+			pending.add(new HashMap<>(products));
+		}
+		Map<Long, RoaringBitmap> current = bitmaps.get();
+		Map<Long, RoaringBitmap> changed = new HashMap<>();
+		Function<Long, RoaringBitmap> writable = categoryId -> changed.computeIfAbsent(categoryId, x -> {
+			RoaringBitmap bitmap = current.get(x);
+			return (bitmap == null) ? new RoaringBitmap() : bitmap.clone();
+		});
+		
+		products.forEach((productId, categoryIds) -> {
+			int id = Math.toIntExact(productId);
+			current.forEach((categoryId, bitmap) -> {
+				if (!categoryIds.contains(categoryId) && bitmap.contains(id)) {
+					writable.apply(categoryId).remove(id);
+				}
+			});
+			for (Long categoryId : categoryIds) {
+				RoaringBitmap bitmap = current.get(categoryId);
+				if (bitmap == null || !bitmap.contains(id)) {
+					writable.apply(categoryId).add(id);
+				}
+			}
+		});
+		if (!changed.isEmpty()) {
+			Map<Long, RoaringBitmap> copy = new HashMap<>(current);
+			copy.putAll(changed);
+			bitmaps.set(Collections.unmodifiableMap(copy));
+		}
+	}
+	
+	public void remove(Long productId) {
+		put(productId, Collections.emptyList());
+	}
+}
@@ -0,0 +1,70 @@
+package com.devsuperior.dscatalog.components;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+
+import javax.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Keeps the last known total per filter. The first request for a filter counts
+ * synchronously; later ones get the cached value and, once it is older than the
+ * refresh interval, trigger a single background recount.
+ */
+@Component
+public class CountEstimator {
+	
+	private static Logger logger = LoggerFactory.getLogger(CountEstimator.class);
+	
+	@Value("${catalog.count.refresh-seconds}")
+	private long refreshSeconds;
+	
+	@Value("${catalog.count.max-filters}")
+	private long maxFilters;
+	
+	private Cache<String, Estimate> estimates;
+	
+	@PostConstruct
+	public void init() {
+		estimates = Caffeine.newBuilder().maximumSize(maxFilters).build();
+	}
+	
+	public long estimate(String key, LongSupplier counter) {
+		Estimate estimate = estimates.get(key, k -> new Estimate(counter.getAsLong()));
+		
+		if (estimate.isStale(refreshSeconds) && estimate.refreshing.compareAndSet(false, true)) {
+			CompletableFuture.runAsync(() -> estimates.put(key, new Estimate(counter.getAsLong())))
+				.whenComplete((result, e) -> {
+					if (e != null) {
+						logger.warn("Count refresh failed for " + key, e);
+						estimate.refreshing.set(false);
+					}
+				});
+		}
+		return estimate.value;
+	}
+	
+	private static class Estimate {
+		
+		private final long value;
+		private final long loadedAt = System.nanoTime();
+		private final AtomicBoolean refreshing = new AtomicBoolean();
+		
+		Estimate(long value) {
+			this.value = value;
+		}
+		
+		boolean isStale(long refreshSeconds) {
+			return System.nanoTime() - loadedAt > Duration.ofSeconds(refreshSeconds).toNanos();
+		}
+	}
+}
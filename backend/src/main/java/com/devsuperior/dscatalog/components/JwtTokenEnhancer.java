@@ -4,6 +4,7 @@ import java.util.HashMap;
 import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.oauth2.common.DefaultOAuth2AccessToken;
 import org.springframework.security.oauth2.common.OAuth2AccessToken;
 import org.springframework.security.oauth2.provider.OAuth2Authentication;
@@ -21,7 +22,7 @@ public class JwtTokenEnhancer implements TokenEnhancer {
 
 	@Override
 	public OAuth2AccessToken enhance(OAuth2AccessToken accessToken, OAuth2Authentication authentication) {
-		User user = userRepository.findByEmail(authentication.getName());
+		User user = principal(authentication);
 		
 		Map<String, Object> map = new HashMap<>();
 		map.put("userFirstName", user.getFirstName());
@@ -32,4 +33,13 @@ public class JwtTokenEnhancer implements TokenEnhancer {
 		
 		return accessToken;
 	}
+	
+	// The password grant already carries the User loaded by the authentication provider
+	private User principal(OAuth2Authentication authentication) {
+		Authentication userAuthentication = authentication.getUserAuthentication();
+		if (userAuthentication != null && userAuthentication.getPrincipal() instanceof User) {
+			return (User) userAuthentication.getPrincipal();
+		}
+		return userRepository.findByEmail(authentication.getName());
+	}
 }
@@ -0,0 +1,73 @@
+package com.devsuperior.dscatalog.components;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.devsuperior.dscatalog.config.AdaptiveBCryptPasswordEncoder;
+import com.devsuperior.dscatalog.repositories.UserRepository;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Number of users per BCrypt cost in tb_user, exported as
+ * catalog.user.password.cost{cost=NN}. Counted from the table at startup and
+ * on a schedule, and adjusted in memory for the hashes this node writes in
+ * between.
+ */
+@Component
+public class PasswordCostMetrics {
+	
+	@Autowired
+	private UserRepository userRepository;
+	
+	@Autowired
+	private MeterRegistry meterRegistry;
+	
+	private final Map<String, AtomicLong> counts = new ConcurrentHashMap<>();
+	
+	@PostConstruct
+	@Scheduled(initialDelayString = "#{${catalog.users.password-cost-metrics.refresh-seconds} * 1000}",
+			fixedDelayString = "#{${catalog.users.password-cost-metrics.refresh-seconds} * 1000}")
+	public void refresh() {
+		Map<String, Long> fresh = new HashMap<>();
+		for (Object[] row : userRepository.countByPasswordCost()) {
+			fresh.put(String.valueOf(row[0]), ((Number) row[1]).longValue());
+		}
+		counts.keySet().forEach(cost -> fresh.putIfAbsent(cost, 0L));
+		fresh.forEach((cost, count) -> counter(cost).set(count));
+	}
+	
+	public void added(String encodedPassword) {
+		if (AdaptiveBCryptPasswordEncoder.costOf(encodedPassword) > 0) {
+			counter(encodedPassword.substring(4, 6)).incrementAndGet();
+		}
+	}
+	
+	public void changed(String previousPassword, String encodedPassword) {
+		if (AdaptiveBCryptPasswordEncoder.costOf(previousPassword) > 0) {
+			counter(previousPassword.substring(4, 6)).decrementAndGet();
+		}
+		added(encodedPassword);
+	}
+	
+	private AtomicLong counter(String cost) {
+		return counts.computeIfAbsent(cost, key -> {
+			AtomicLong count = new AtomicLong();
+			Gauge.builder("catalog.user.password.cost", count, AtomicLong::get)
+					.description("Users per BCrypt cost factor")
+					.baseUnit("users")
+					.tag("cost", key)
+					.register(meterRegistry);
+			return count;
+		});
+	}
+}
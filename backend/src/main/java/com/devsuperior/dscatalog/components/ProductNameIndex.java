@@ -0,0 +1,160 @@
+package com.devsuperior.dscatalog.components;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.devsuperior.dscatalog.repositories.ProductRepository;
+
+/**
+ * In-memory trigram index over product names. Resolves a case-insensitive
+ * substring query to the matching product ids without touching tb_product.
+ * Writes through ProductService keep it current on this node; a periodic
+ * rebuild picks up everything else, and replays the writes made while it
+ * was reading the table so none of them is lost.
+ */
+@Component
+public class ProductNameIndex {
+
+	private static final int GRAM = 3;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Value("${catalog.search.max-candidates}")
+	private int maxCandidates;
+
+	private final Object reloadLock = new Object();
+	private volatile Map<String, Set<Long>> postings = new ConcurrentHashMap<>();
+	private volatile Map<Long, String> names = new ConcurrentHashMap<>();
+	// Writes made while a rebuild reads the table, replayed onto the rebuilt maps; null when no rebuild runs
+	private List<Runnable> pending;
+
+	@PostConstruct
+	@Scheduled(initialDelayString = "#{${catalog.search.index-reload-seconds} * 1000}",
+			fixedDelayString = "#{${catalog.search.index-reload-seconds} * 1000}")
+	public void load() {
+		synchronized (reloadLock) {
+			synchronized (this) {
+				pending = new ArrayList<>();
+			}
+			try {
+				List<Object[]> rows = productRepository.findAllNames();
+				Map<String, Set<Long>> newPostings = new ConcurrentHashMap<>();
+				Map<Long, String> newNames = new ConcurrentHashMap<>();
+				for (Object[] row : rows) {
+					String name = normalize((String) row[1]);
+					newNames.put((Long) row[0], name);
+					for (String gram : grams(name)) {
+						newPostings.computeIfAbsent(gram, x -> ConcurrentHashMap.newKeySet()).add((Long) row[0]);
+					}
+				}
+				synchronized (this) {
+					postings = newPostings;
+					names = newNames;
+					List<Runnable> writes = pending;
+					pending = null;
+					writes.forEach(Runnable::run);
+				}
+			}
+			finally {
+				synchronized (this) {
+					pending = null;
+				}
+			}
+		}
+	}
+
+	// Empty when the index cannot answer cheaply: text shorter than a trigram, or more than maxCandidates matches
+	public Optional<Set<Long>> search(String text) {
+		String query = normalize(text);
+		if (query.length() < GRAM) {
+			return Optional.empty();
+		}
+		Map<String, Set<Long>> postings = this.postings;
+		Map<Long, String> names = this.names;
+
+		List<Set<Long>> lists = new ArrayList<>();
+		for (String gram : grams(query)) {
+			Set<Long> ids = postings.get(gram);
+			if (ids == null) {
+				return Optional.of(Collections.emptySet());
+			}
+			lists.add(ids);
+		}
+		lists.sort(Comparator.comparingInt(Set::size));
+
+		Set<Long> result = new HashSet<>();
+		for (Long id : lists.get(0)) {
+			String name = names.get(id);
+			if (name != null && name.contains(query) && lists.stream().allMatch(x -> x.contains(id))) {
+				result.add(id);
+				if (result.size() > maxCandidates) {
+					return Optional.empty();
+				}
+			}
+		}
+		return Optional.of(result);
+	}
+
+	public synchronized void put(Long id, String name) {
+		if (pending != null) {
+			pending.add(() -> put(id, name));
+		}
+		String previous = names.put(id, normalize(name));
+		if (previous != null) {
+			unlink(id, previous);
+		}
+		for (String gram : grams(normalize(name))) {
+			postings.computeIfAbsent(gram, x -> ConcurrentHashMap.newKeySet()).add(id);
+		}
+	}
+
+	public synchronized void remove(Long id) {
+		if (pending != null) {
+			pending.add(() -> remove(id));
+		}
+		String previous = names.remove(id);
+		if (previous != null) {
+			unlink(id, previous);
+		}
+	}
+
+	private void unlink(Long id, String name) {
+		for (String gram : grams(name)) {
+			Set<Long> ids = postings.get(gram);
+			if (ids != null) {
+				ids.remove(id);
+				if (ids.isEmpty()) {
+					postings.remove(gram);
+				}
+			}
+		}
+	}
+
+	private static Set<String> grams(String text) {
+		Set<String> grams = new HashSet<>();
+		for (int i = 0; i + GRAM <= text.length(); i++) {
+			grams.add(text.substring(i, i + GRAM));
+		}
+		return grams;
+	}
+
+	private static String normalize(String text) {
+		return text == null ? "" : text.toLowerCase(Locale.ROOT);
+	}
+}
@@ -0,0 +1,181 @@
+package com.devsuperior.dscatalog.components;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.MethodExecutionContext;
+import net.ttddyy.dsproxy.listener.lifecycle.JdbcLifecycleEventListenerAdapter;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import net.ttddyy.dsproxy.proxy.ProxyJdbcObject;
+
+/**
+ * Logs the JDBC statements slower than a threshold, plus a random sample of
+ * the rest, as one logfmt line each: duration, row count, bind parameter
+ * types (never values), the calling service method and the SQL. The lines
+ * go to the "slow-query" logger, which logback writes asynchronously.
+ */
+@Component
+@ConditionalOnProperty(name = "catalog.sql.slow-query.enabled", havingValue = "true")
+public class SlowQueryLog extends JdbcLifecycleEventListenerAdapter {
+
+	private static Logger logger = LoggerFactory.getLogger("slow-query");
+
+	private static final String SERVICES = "com.devsuperior.dscatalog.services.";
+	private static final int MAX_OPEN_RESULT_SETS = 16;
+
+	@Value("${catalog.sql.slow-query.threshold-ms}")
+	private long thresholdMillis;
+
+	@Value("${catalog.sql.slow-query.sample-rate}")
+	private double sampleRate;
+
+	// Selected statements whose ResultSet is still being read, keyed by the unwrapped ResultSet
+	private final ThreadLocal<Map<Object, Entry>> open = ThreadLocal.withInitial(IdentityHashMap::new);
+
+	@Override
+	public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+		boolean slow = execInfo.getElapsedTime() >= thresholdMillis;
+		if (!slow && (sampleRate <= 0.0 || ThreadLocalRandom.current().nextDouble() >= sampleRate)) {
+			return;
+		}
+		Entry entry = new Entry(execInfo, queryInfoList, slow, caller());
+		Object result = unwrap(execInfo.getResult());
+		if (result instanceof ResultSet) {
+			Map<Object, Entry> map = open.get();
+			if (map.size() >= MAX_OPEN_RESULT_SETS) {
+				flush(map, null);
+			}
+			map.put(result, entry);
+		}
+		else {
+			entry.rows = rowCount(result);
+			logger.info(entry.toString());
+		}
+	}
+
+	@Override
+	public void afterNext(MethodExecutionContext executionContext) {
+		Map<Object, Entry> map = open.get();
+		if (!map.isEmpty() && Boolean.TRUE.equals(executionContext.getResult())) {
+			Entry entry = map.get(unwrap(executionContext.getTarget()));
+			if (entry != null) {
+				entry.rows++;
+			}
+		}
+	}
+
+	@Override
+	public void afterClose(MethodExecutionContext executionContext) {
+		Map<Object, Entry> map = open.get();
+		if (map.isEmpty()) {
+			return;
+		}
+		Object target = unwrap(executionContext.getTarget());
+		if (target instanceof ResultSet) {
+			Entry entry = map.remove(target);
+			if (entry != null) {
+				logger.info(entry.toString());
+			}
+		}
+		else if (target instanceof Statement) {
+			flush(map, target);
+		}
+	}
+
+	// Logs the entries read from the given statement, or all of them when statement is null
+	private static void flush(Map<Object, Entry> map, Object statement) {
+		Iterator<Entry> it = map.values().iterator();
+		while (it.hasNext()) {
+			Entry entry = it.next();
+			if (statement == null || entry.statement == statement) {
+				logger.info(entry.toString());
+				it.remove();
+			}
+		}
+	}
+
+	private static Object unwrap(Object jdbcObject) {
+		return jdbcObject instanceof ProxyJdbcObject ? ((ProxyJdbcObject) jdbcObject).getTarget() : jdbcObject;
+	}
+
+	private static long rowCount(Object result) {
+		if (result instanceof Integer || result instanceof Long) {
+			return ((Number) result).longValue();
+		}
+		if (result instanceof int[]) {
+			long rows = 0;
+			for (int n : (int[]) result) {
+				rows += Math.max(n, 0);
+			}
+			return rows;
+		}
+		return -1;
+	}
+
+	private static String caller() {
+		return StackWalker.getInstance().walk(frames -> frames
+				.filter(f -> f.getClassName().startsWith(SERVICES) && !f.getClassName().contains("$$"))
+				.findFirst()
+				.map(f -> f.getClassName().substring(SERVICES.length()) + "." + f.getMethodName())
+				.orElse("-"));
+	}
+
+	private static String shape(List<QueryInfo> queryInfoList) {
+		if (queryInfoList.isEmpty() || queryInfoList.get(0).getParametersList().isEmpty()) {
+			return "[]";
+		}
+		StringBuilder sb = new StringBuilder("[");
+		for (ParameterSetOperation operation : queryInfoList.get(0).getParametersList().get(0)) {
+			if (sb.length() > 1) {
+				sb.append(',');
+			}
+			sb.append(ParameterSetOperation.isSetNullParameterOperation(operation)
+					? "null" : operation.getMethod().getName().replaceFirst("^set", ""));
+		}
+		return sb.append(']').toString();
+	}
+
+	private static final class Entry {
+
+		private final Object statement;
+		private final long durationMillis;
+		private final boolean slow;
+		private final boolean success;
+		private final String caller;
+		private final String params;
+		private final int batch;
+		private final String sql;
+		private long rows;
+
+		private Entry(ExecutionInfo execInfo, List<QueryInfo> queryInfoList, boolean slow, String caller) {
+			this.statement = unwrap(execInfo.getStatement());
+			this.durationMillis = execInfo.getElapsedTime();
+			this.slow = slow;
+			this.success = execInfo.isSuccess();
+			this.caller = caller;
+			this.params = shape(queryInfoList);
+			this.batch = execInfo.isBatch() ? execInfo.getBatchSize() : 0;
+			this.sql = queryInfoList.isEmpty() ? "" : queryInfoList.get(0).getQuery();
+		}
+
+		@Override
+		public String toString() {
+			return "duration_ms=" + durationMillis + " rows=" + rows + " slow=" + slow + " success=" + success
+					+ " caller=" + caller + " params=" + params + " batch=" + batch
+					+ " sql=\"" + sql.replace('"', '\'') + "\"";
+		}
+	}
+}
@@ -0,0 +1,19 @@
+package com.devsuperior.dscatalog.components;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Maximum number of JDBC statements a controller endpoint or service method
+ * may execute per call. Endpoints without it get the default budget.
+ */
+@Target({ ElementType.METHOD })
+@Retention(RetentionPolicy.RUNTIME)
+public @interface StatementBudget {
+
+	int UNLIMITED = -1;
+
+	int value();
+}
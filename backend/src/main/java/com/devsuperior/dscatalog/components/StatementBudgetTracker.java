@@ -0,0 +1,129 @@
+package com.devsuperior.dscatalog.components;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+/**
+ * Counts the JDBC statements executed on the current thread inside nested
+ * scopes (an HTTP request, a service method) and reports every scope that
+ * closes above its budget together with the statements it ran.
+ */
+@Component
+@ConditionalOnProperty(name = "catalog.sql.budget.enabled", havingValue = "true")
+public class StatementBudgetTracker implements QueryExecutionListener {
+
+	private static Logger logger = LoggerFactory.getLogger(StatementBudgetTracker.class);
+
+	private static final int MAX_DISTINCT_STATEMENTS = 50;
+	private static final int MAX_VIOLATIONS = 100;
+
+	private final ThreadLocal<Deque<Scope>> scopes = ThreadLocal.withInitial(ArrayDeque::new);
+	private final Queue<String> violations = new ConcurrentLinkedQueue<>();
+
+	public Scope open(String name, int budget) {
+		Scope scope = new Scope(name, budget);
+		scopes.get().push(scope);
+		return scope;
+	}
+
+	public void close(Scope scope) {
+		Deque<Scope> stack = scopes.get();
+		if (!stack.remove(scope)) {
+			return;
+		}
+		Scope parent = stack.peek();
+		if (parent != null) {
+			parent.nested.merge(scope.name, scope.count, Integer::sum);
+		}
+		if (stack.isEmpty()) {
+			scopes.remove();
+		}
+		if (scope.budget != StatementBudget.UNLIMITED && scope.count > scope.budget) {
+			String report = scope.report();
+			logger.warn(report);
+			violations.add(report);
+			while (violations.size() > MAX_VIOLATIONS) {
+				violations.poll();
+			}
+		}
+	}
+
+	public List<String> drainViolations() {
+		List<String> result = new ArrayList<>();
+		for (String report = violations.poll(); report != null; report = violations.poll()) {
+			result.add(report);
+		}
+		return result;
+	}
+
+	@Override
+	public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+	}
+
+	@Override
+	public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+		Deque<Scope> stack = scopes.get();
+		if (stack.isEmpty()) {
+			return;
+		}
+		String sql = queryInfoList.isEmpty() ? "" : queryInfoList.get(0).getQuery();
+		for (Scope scope : stack) {
+			scope.record(sql);
+		}
+	}
+
+	public static final class Scope {
+
+		private final String name;
+		private final int budget;
+		private final Map<String, Integer> statements = new LinkedHashMap<>();
+		private final Map<String, Integer> nested = new LinkedHashMap<>();
+		private int count;
+
+		private Scope(String name, int budget) {
+			this.name = name;
+			this.budget = budget;
+		}
+
+		public int getCount() {
+			return count;
+		}
+
+		public Set<String> getStatements() {
+			return Collections.unmodifiableSet(statements.keySet());
+		}
+
+		private void record(String sql) {
+			count++;
+			if (statements.containsKey(sql) || statements.size() < MAX_DISTINCT_STATEMENTS) {
+				statements.merge(sql, 1, Integer::sum);
+			}
+		}
+
+		private String report() {
+			StringBuilder sb = new StringBuilder();
+			sb.append("Statement budget exceeded in ").append(name)
+					.append(": ").append(count).append(" statements, budget ").append(budget);
+			nested.forEach((method, n) -> sb.append("\n  ").append(method).append(": ").append(n));
+			statements.forEach((sql, n) -> sb.append("\n  ").append(n).append("x ").append(sql));
+			return sb.toString();
+		}
+	}
+}
@@ -0,0 +1,158 @@
+package com.devsuperior.dscatalog.components;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.devsuperior.dscatalog.repositories.UserRepository;
+
+/**
+ * Bloom filter over every e-mail in tb_user. A negative answer is definite,
+ * so most "is this e-mail free" checks never reach the database. Bits cannot
+ * be cleared: removed e-mails are only counted, and the filter is rebuilt from
+ * the table once they make up a tenth of its entries. It is also rebuilt on a
+ * schedule to pick up e-mails written by other nodes. The unique constraint
+ * on tb_user.email stays the final guard.
+ */
+@Component
+public class UserEmailFilter {
+	
+	@Autowired
+	private UserRepository userRepository;
+	
+	@Value("${catalog.users.email-filter.expected-insertions}")
+	private int expectedInsertions;
+	
+	@Value("${catalog.users.email-filter.fpp}")
+	private double fpp;
+	
+	private final Object reloadLock = new Object();
+	private volatile Bits current;
+	private Bits building;
+	private int stale;
+	
+	public static String normalize(String email) {
+		return email == null ? null : email.trim().toLowerCase(Locale.ROOT);
+	}
+	
+	@PostConstruct
+	@Scheduled(initialDelayString = "#{${catalog.users.email-filter.reload-seconds} * 1000}",
+			fixedDelayString = "#{${catalog.users.email-filter.reload-seconds} * 1000}")
+	public void load() {
+		// One rebuild at a time, or puts could land only in a filter that is then replaced
+		synchronized (reloadLock) {
+			Bits next = new Bits(Math.max(expectedInsertions, (int) userRepository.count() * 2), fpp);
+			synchronized (this) {
+				building = next;
+			}
+			// E-mails put while the table is read go to both filters
+			for (String email : userRepository.findAllEmails()) {
+				next.add(normalize(email));
+			}
+			synchronized (this) {
+				current = next;
+				building = null;
+				stale = 0;
+			}
+		}
+	}
+	
+	public boolean mightContain(String email) {
+		return email != null && current.mightContain(normalize(email));
+	}
+	
+	// Call before the row is written, so a rollback can only leave a false positive
+	public synchronized void put(String email) {
+		if (email == null) {
+			return;
+		}
+		if (current != null) {
+			current.add(normalize(email));
+		}
+		if (building != null) {
+			building.add(normalize(email));
+		}
+	}
+	
+	public void markRemoved() {
+		boolean rebuild;
+		synchronized (this) {
+			stale++;
+			rebuild = building == null && stale * 10L > current.added.get();
+		}
+		if (rebuild) {
+			load();
+		}
+	}
+	
+	private static final class Bits {
+		
+		private final AtomicLongArray words;
+		private final long size;
+		private final int hashes;
+		private final AtomicLong added = new AtomicLong();
+		
+		private Bits(int expectedInsertions, double fpp) {
+			long bits = (long) Math.ceil(-expectedInsertions * Math.log(fpp) / (Math.log(2) * Math.log(2)));
+			int length = (int) Math.max(1, (bits + 63) / 64);
+			words = new AtomicLongArray(length);
+			size = length * 64L;
+			hashes = Math.max(1, (int) Math.round((double) size / expectedInsertions * Math.log(2)));
+		}
+		
+		private void add(String email) {
+			long h1 = hash(email);
+			long h2 = mix(h1);
+			for (int i = 0; i < hashes; i++) {
+				long bit = Math.floorMod(h1 + i * h2, size);
+				int index = (int) (bit >>> 6);
+				long mask = 1L << bit;
+				long word;
+				while (((word = words.get(index)) & mask) == 0 && !words.compareAndSet(index, word, word | mask)) {
+				}
+			}
+			added.incrementAndGet();
+		}
+		
+		private boolean mightContain(String email) {
+			long h1 = hash(email);
+			long h2 = mix(h1);
+			for (int i = 0; i < hashes; i++) {
+				long bit = Math.floorMod(h1 + i * h2, size);
+				if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+					return false;
+				}
+			}
+			return true;
+		}
+		
+		// FNV-1a over the UTF-8 bytes
+		private static long hash(String email) {
+			long h = 0xcbf29ce484222325L;
+			for (byte b : email.getBytes(StandardCharsets.UTF_8)) {
+				h ^= b & 0xff;
+				h *= 0x100000001b3L;
+			}
+			return h;
+		}
+		
+		// MurmurHash3 finalizer, gives the second hash for double hashing
+		private static long mix(long h) {
+			h ^= 0x9e3779b97f4a7c15L;
+			h ^= h >>> 33;
+			h *= 0xff51afd7ed558ccdL;
+			h ^= h >>> 33;
+			h *= 0xc4ceb3fe1a85ec53L;
+			h ^= h >>> 33;
+			return h | 1;
+		}
+	}
+}
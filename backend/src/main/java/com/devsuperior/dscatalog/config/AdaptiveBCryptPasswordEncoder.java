@@ -0,0 +1,78 @@
+package com.devsuperior.dscatalog.config;
+
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+/**
+ * BCrypt encoder whose cost is picked at startup from a target hashing
+ * latency. A stored hash with a lower cost is reported as needing an upgrade
+ * so it gets rehashed on the next login. Higher costs are kept: nodes that
+ * calibrate differently would otherwise rehash the same password back and
+ * forth. Set min and max strength to the same value to pin the cost.
+ */
+public class AdaptiveBCryptPasswordEncoder extends BCryptPasswordEncoder {
+	
+	private static Logger logger = LoggerFactory.getLogger(AdaptiveBCryptPasswordEncoder.class);
+	
+	private static final String SAMPLE = "calibration-sample";
+	
+	private final int strength;
+	
+	public AdaptiveBCryptPasswordEncoder(int strength) {
+		super(strength);
+		this.strength = strength;
+	}
+	
+	// Highest cost in [minStrength, maxStrength] that hashes within targetMillis, or minStrength
+	public static AdaptiveBCryptPasswordEncoder calibrate(long targetMillis, int minStrength, int maxStrength) {
+		int strength = minStrength;
+		for (int cost = minStrength; cost <= maxStrength && minStrength < maxStrength; cost++) {
+			long millis = measure(cost);
+			logger.info("BCrypt cost {} takes {} ms", cost, millis);
+			if (millis > targetMillis) {
+				break;
+			}
+			strength = cost;
+		}
+		logger.info("BCrypt cost set to {} for a target of {} ms", strength, targetMillis);
+		return new AdaptiveBCryptPasswordEncoder(strength);
+	}
+	
+	public int getStrength() {
+		return strength;
+	}
+	
+	@Override
+	public boolean upgradeEncoding(String encodedPassword) {
+		int cost = costOf(encodedPassword);
+		return cost > 0 && cost < strength;
+	}
+	
+	// Cost field of a $2a$NN$... hash, or -1 when the value is not a BCrypt hash
+	public static int costOf(String encodedPassword) {
+		if (encodedPassword == null || encodedPassword.length() < 7 || encodedPassword.charAt(0) != '$'
+				|| encodedPassword.charAt(3) != '$' || encodedPassword.charAt(6) != '$') {
+			return -1;
+		}
+		try {
+			return Integer.parseInt(encodedPassword.substring(4, 6));
+		}
+		catch (NumberFormatException e) {
+			return -1;
+		}
+	}
+	
+	private static long measure(int cost) {
+		BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(cost);
+		long best = Long.MAX_VALUE;
+		for (int i = 0; i < 2; i++) {
+			long start = System.nanoTime();
+			encoder.encode(SAMPLE);
+			best = Math.min(best, System.nanoTime() - start);
+		}
+		return TimeUnit.NANOSECONDS.toMillis(best);
+	}
+}
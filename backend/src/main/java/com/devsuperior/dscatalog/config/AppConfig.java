@@ -3,19 +3,47 @@ package com.devsuperior.dscatalog.config;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.oauth2.provider.token.store.JwtAccessTokenConverter;
 import org.springframework.security.oauth2.provider.token.store.JwtTokenStore;
 
+import com.devsuperior.dscatalog.repositories.RevokedTokenRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
 @Configuration
 public class AppConfig {
 	
 	@Value("${jwt.secret}")
 	private String jwtSecret;
 	
+	@Value("${catalog.security.token-cache.max-size}")
+	private long tokenCacheMaxSize;
+	
+	@Value("${catalog.security.bcrypt.target-millis}")
+	private long bcryptTargetMillis;
+	
+	@Value("${catalog.security.bcrypt.min-strength}")
+	private int bcryptMinStrength;
+	
+	@Value("${catalog.security.bcrypt.max-strength}")
+	private int bcryptMaxStrength;
+	
+	@Value("${catalog.security.password-pool.threads}")
+	private int passwordPoolThreads;
+	
+	@Value("${catalog.security.password-pool.queue-size}")
+	private int passwordPoolQueueSize;
+	
+	@Value("${catalog.security.password-pool.retry-after-seconds}")
+	private long passwordPoolRetryAfterSeconds;
+	
 	@Bean
-	public BCryptPasswordEncoder passwordEncoder() {
-		return new BCryptPasswordEncoder();
+	public PasswordEncoder passwordEncoder(MeterRegistry meterRegistry) {
+		AdaptiveBCryptPasswordEncoder bcrypt = AdaptiveBCryptPasswordEncoder.calibrate(bcryptTargetMillis, bcryptMinStrength,
+				bcryptMaxStrength);
+		return new BoundedPasswordEncoder(bcrypt, passwordPoolThreads, passwordPoolQueueSize,
+				passwordPoolRetryAfterSeconds, meterRegistry);
 	}
 	
 	@Bean
@@ -26,7 +54,7 @@ public class AppConfig {
 	}
 	
 	@Bean
-	public JwtTokenStore tokenStore() {
-		return new JwtTokenStore(accessTokenConvert());
+	public JwtTokenStore tokenStore(RevokedTokenRepository revokedTokenRepository, MeterRegistry meterRegistry) {
+		return new CachingJwtTokenStore(accessTokenConvert(), tokenCacheMaxSize, revokedTokenRepository, meterRegistry);
 	}
 }
@@ -0,0 +1,27 @@
+package com.devsuperior.dscatalog.config;
+
+import java.util.concurrent.Callable;
+
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+
+/**
+ * Lets a handler give its own asynchronous work, such as a
+ * StreamingResponseBody, a longer timeout than the global
+ * spring.mvc.async.request-timeout by setting TIMEOUT_ATTRIBUTE (millis).
+ */
+public class AsyncTimeoutInterceptor implements CallableProcessingInterceptor {
+	
+	public static final String TIMEOUT_ATTRIBUTE = AsyncTimeoutInterceptor.class.getName() + ".TIMEOUT";
+	
+	@Override
+	public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> task) {
+		Object timeout = request.getAttribute(TIMEOUT_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+		// Still before startAsync, so the timeout reaches the servlet AsyncContext
+		if (timeout instanceof Long && request instanceof AsyncWebRequest) {
+			((AsyncWebRequest) request).setTimeout((Long) timeout);
+		}
+	}
+}
@@ -6,7 +6,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.oauth2.config.annotation.configurers.ClientDetailsServiceConfigurer;
 import org.springframework.security.oauth2.config.annotation.web.configuration.AuthorizationServerConfigurerAdapter;
 import org.springframework.security.oauth2.config.annotation.web.configuration.EnableAuthorizationServer;
@@ -31,8 +31,10 @@ public class AuthorizationServerConfig extends AuthorizationServerConfigurerAdap
 	@Value("${jwt.duratoin}")
 	private Integer jwtDuration;
 	
-	@Autowired
-	private BCryptPasswordEncoder bCryptPasswordEncoder;
+	@Value("${jwt.refresh-duration}")
+	private Integer jwtRefreshDuration;
+	
+	private final ClientSecretEncoder clientSecretEncoder = new ClientSecretEncoder();
 	
 	@Autowired
 	private JwtAccessTokenConverter accessTokenConverter;
@@ -45,20 +47,25 @@ public class AuthorizationServerConfig extends AuthorizationServerConfigurerAdap
 	
 	@Autowired
 	private JwtTokenEnhancer jwtTokenEnhancer;
+	
+	@Autowired
+	private UserDetailsService userDetailsService;
 
 	@Override
 	public void configure(AuthorizationServerSecurityConfigurer security) throws Exception {
-		security.tokenKeyAccess("permitAll()").checkTokenAccess("isAuthenticated()");
+		security.tokenKeyAccess("permitAll()").checkTokenAccess("isAuthenticated()")
+		.passwordEncoder(clientSecretEncoder);
 	}
 
 	@Override
 	public void configure(ClientDetailsServiceConfigurer clients) throws Exception {
 		clients.inMemory()
 		.withClient(clientId)
-		.secret(bCryptPasswordEncoder.encode(clientSecret))
+		.secret(clientSecretEncoder.encode(clientSecret))
 		.scopes("read", "write")
-		.authorizedGrantTypes("password")
-		.accessTokenValiditySeconds(jwtDuration);
+		.authorizedGrantTypes("password", "refresh_token")
+		.accessTokenValiditySeconds(jwtDuration)
+		.refreshTokenValiditySeconds(jwtRefreshDuration);
 	}
 
 	@Override
@@ -69,6 +76,10 @@ public class AuthorizationServerConfig extends AuthorizationServerConfigurerAdap
 		 endpoints.authenticationManager(authenticationManager)
 		 .tokenStore(jwtTokenStore)
 		 .accessTokenConverter(accessTokenConverter)
-		 .tokenEnhancer(chain);
+		 .tokenEnhancer(chain)
+		 // Refresh reloads the user by name instead of checking the password again
+		 .userDetailsService(userDetailsService)
+		 .reuseRefreshTokens(false)
+		 .exceptionTranslator(new OverloadAwareExceptionTranslator());
 	}
 }
@@ -0,0 +1,84 @@
+package com.devsuperior.dscatalog.config;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.devsuperior.dscatalog.services.exceptions.ServiceOverloadedException;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+
+/**
+ * Runs a slow PasswordEncoder on a fixed pool with a bounded queue, so login
+ * spikes cannot take every request thread's CPU. When the queue is full the
+ * call fails fast with ServiceOverloadedException instead of waiting.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+	
+	public static final String EXECUTOR_NAME = "passwordEncoder";
+	
+	private final PasswordEncoder delegate;
+	private final ThreadPoolExecutor executor;
+	private final long retryAfterSeconds;
+	
+	public BoundedPasswordEncoder(PasswordEncoder delegate, int threads, int queueSize, long retryAfterSeconds,
+			MeterRegistry meterRegistry) {
+		this.delegate = delegate;
+		this.retryAfterSeconds = retryAfterSeconds;
+		AtomicInteger count = new AtomicInteger();
+		executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueSize),
+				runnable -> {
+					Thread thread = new Thread(runnable, EXECUTOR_NAME + "-" + count.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				},
+				new ThreadPoolExecutor.AbortPolicy());
+		ExecutorServiceMetrics.monitor(meterRegistry, executor, EXECUTOR_NAME);
+	}
+	
+	@Override
+	public String encode(CharSequence rawPassword) {
+		return call(() -> delegate.encode(rawPassword));
+	}
+	
+	@Override
+	public boolean matches(CharSequence rawPassword, String encodedPassword) {
+		return call(() -> delegate.matches(rawPassword, encodedPassword));
+	}
+	
+	// A rehash is opportunistic, so it is skipped while the pool is saturated
+	@Override
+	public boolean upgradeEncoding(String encodedPassword) {
+		return executor.getQueue().remainingCapacity() > 0 && delegate.upgradeEncoding(encodedPassword);
+	}
+	
+	public void shutdown() {
+		executor.shutdownNow();
+	}
+	
+	private <T> T call(Callable<T> task) {
+		try {
+			return executor.submit(task).get();
+		}
+		catch (RejectedExecutionException e) {
+			throw new ServiceOverloadedException("Too many password checks in progress", retryAfterSeconds);
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new ServiceOverloadedException("Interrupted while waiting for a password check", retryAfterSeconds);
+		}
+		catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new IllegalStateException(e.getCause());
+		}
+	}
+}
@@ -0,0 +1,54 @@
+package com.devsuperior.dscatalog.config;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+	
+	public static final String PRODUCT_BY_ID = "productById";
+	public static final String USER_PRINCIPALS = "userPrincipals";
+	
+	@Value("${catalog.cache.product.max-size}")
+	private long productMaxSize;
+	
+	@Value("${catalog.cache.product.ttl-seconds}")
+	private long productTtlSeconds;
+	
+	@Value("${catalog.cache.principal.max-size}")
+	private long principalMaxSize;
+	
+	@Value("${catalog.cache.principal.ttl-seconds}")
+	private long principalTtlSeconds;
+	
+	@Bean
+	public CacheManager cacheManager() {
+		SimpleCacheManager cacheManager = new SimpleCacheManager();
+		cacheManager.setCaches(Arrays.asList(
+				cache(PRODUCT_BY_ID, productMaxSize, productTtlSeconds),
+				cache(USER_PRINCIPALS, principalMaxSize, principalTtlSeconds)));
+		cacheManager.afterPropertiesSet();
+		// Evictions issued inside a transaction are applied after commit
+		return new TransactionAwareCacheManagerProxy(cacheManager);
+	}
+	
+	private static CaffeineCache cache(String name, long maxSize, long ttlSeconds) {
+		return new CaffeineCache(name, Caffeine.newBuilder()
+				.maximumSize(maxSize)
+				.expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+				.recordStats()
+				.build());
+	}
+}
@@ -0,0 +1,164 @@
+package com.devsuperior.dscatalog.config;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.oauth2.common.ExpiringOAuth2RefreshToken;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.common.OAuth2RefreshToken;
+import org.springframework.security.oauth2.common.exceptions.InvalidGrantException;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.token.store.JwtAccessTokenConverter;
+import org.springframework.security.oauth2.provider.token.store.JwtTokenStore;
+
+import com.devsuperior.dscatalog.repositories.RevokedTokenRepository;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * JwtTokenStore that remembers tokens it has already decoded and verified,
+ * keyed by a SHA-256 of the encoded value and kept until the token expires.
+ * Each read hands out a fresh OAuth2Authentication, because the resource
+ * server sets request details on the one it receives.
+ * <p>
+ * Refresh tokens are single use: once a refresh token has been exchanged it
+ * is recorded in tb_revoked_token, so every node sees the revocation and it
+ * survives a restart. Rows are purged once the token would have expired anyway.
+ */
+public class CachingJwtTokenStore extends JwtTokenStore {
+	
+	public static final String CACHE_NAME = "jwtTokens";
+	
+	private final Cache<String, Verified> verified;
+	private final RevokedTokenRepository revokedTokenRepository;
+	
+	public CachingJwtTokenStore(JwtAccessTokenConverter jwtTokenEnhancer, long maxSize,
+			RevokedTokenRepository revokedTokenRepository, MeterRegistry meterRegistry) {
+		super(jwtTokenEnhancer);
+		this.revokedTokenRepository = revokedTokenRepository;
+		verified = Caffeine.newBuilder()
+				.maximumSize(maxSize)
+				.expireAfter(new UntilExpiration<Verified>(x -> x.accessToken.getExpiration()))
+				.recordStats()
+				.build();
+		CaffeineCacheMetrics.monitor(meterRegistry, verified, CACHE_NAME);
+	}
+	
+	@Override
+	public OAuth2AccessToken readAccessToken(String tokenValue) {
+		return verify(tokenValue).accessToken;
+	}
+	
+	@Override
+	public OAuth2Authentication readAuthentication(OAuth2AccessToken token) {
+		return readAuthentication(token.getValue());
+	}
+	
+	@Override
+	public OAuth2Authentication readAuthentication(String token) {
+		OAuth2Authentication authentication = verify(token).authentication;
+		return new OAuth2Authentication(authentication.getOAuth2Request(), authentication.getUserAuthentication());
+	}
+	
+	@Override
+	public OAuth2Authentication readAuthenticationForRefreshToken(OAuth2RefreshToken token) {
+		return super.readAuthentication(token.getValue());
+	}
+	
+	@Override
+	public OAuth2RefreshToken readRefreshToken(String tokenValue) {
+		if (revokedTokenRepository.existsById(hash(tokenValue))) {
+			return null;
+		}
+		return super.readRefreshToken(tokenValue);
+	}
+	
+	@Override
+	public void removeRefreshToken(OAuth2RefreshToken token) {
+		Date expiration = token instanceof ExpiringOAuth2RefreshToken
+				? ((ExpiringOAuth2RefreshToken) token).getExpiration()
+				: null;
+		// Two concurrent exchanges of the same token, on any node: only the first insert wins
+		try {
+			revokedTokenRepository.insert(hash(token.getValue()), expiration == null ? null : expiration.toInstant());
+		}
+		catch (DataIntegrityViolationException e) {
+			throw new InvalidGrantException("Invalid refresh token: " + token.getValue());
+		}
+		super.removeRefreshToken(token);
+	}
+	
+	@Scheduled(initialDelayString = "#{${catalog.security.revoked-tokens.purge-seconds} * 1000}",
+			fixedDelayString = "#{${catalog.security.revoked-tokens.purge-seconds} * 1000}")
+	public void purgeRevokedTokens() {
+		revokedTokenRepository.deleteExpired(Instant.now());
+	}
+	
+	// Concurrent first reads of the same token decode it once; an invalid token is not cached
+	private Verified verify(String tokenValue) {
+		return verified.get(hash(tokenValue), key -> new Verified(super.readAccessToken(tokenValue),
+				super.readAuthentication(tokenValue)));
+	}
+	
+	private static String hash(String tokenValue) {
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-256").digest(tokenValue.getBytes(StandardCharsets.US_ASCII));
+			return Base64.getEncoder().encodeToString(digest);
+		}
+		catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+	
+	private static final class Verified {
+		
+		private final OAuth2AccessToken accessToken;
+		private final OAuth2Authentication authentication;
+		
+		private Verified(OAuth2AccessToken accessToken, OAuth2Authentication authentication) {
+			this.accessToken = accessToken;
+			this.authentication = authentication;
+		}
+	}
+	
+	private static final class UntilExpiration<V> implements Expiry<String, V> {
+		
+		private final Function<V, Date> expiration;
+		
+		private UntilExpiration(Function<V, Date> expiration) {
+			this.expiration = expiration;
+		}
+		
+		@Override
+		public long expireAfterCreate(String key, V value, long currentTime) {
+			Date date = expiration.apply(value);
+			if (date == null) {
+				return Long.MAX_VALUE;
+			}
+			return Math.max(0, TimeUnit.MILLISECONDS.toNanos(date.getTime() - System.currentTimeMillis()));
+		}
+		
+		@Override
+		public long expireAfterUpdate(String key, V value, long currentTime, long currentDuration) {
+			return expireAfterCreate(key, value, currentTime);
+		}
+		
+		@Override
+		public long expireAfterRead(String key, V value, long currentTime, long currentDuration) {
+			return currentDuration;
+		}
+	}
+}
@@ -0,0 +1,46 @@
+package com.devsuperior.dscatalog.config;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Encoder for OAuth client secrets. The secret is a long random value set by
+ * configuration rather than a user chosen password, so a single SHA-256 is
+ * enough and BCrypt's work factor only costs CPU on every token request.
+ * Digests are compared in constant time.
+ */
+public class ClientSecretEncoder implements PasswordEncoder {
+	
+	@Override
+	public String encode(CharSequence rawPassword) {
+		return Base64.getEncoder().encodeToString(digest(rawPassword));
+	}
+	
+	@Override
+	public boolean matches(CharSequence rawPassword, String encodedPassword) {
+		if (rawPassword == null || encodedPassword == null) {
+			return false;
+		}
+		byte[] expected;
+		try {
+			expected = Base64.getDecoder().decode(encodedPassword);
+		}
+		catch (IllegalArgumentException e) {
+			return false;
+		}
+		return MessageDigest.isEqual(expected, digest(rawPassword));
+	}
+	
+	private static byte[] digest(CharSequence rawPassword) {
+		try {
+			return MessageDigest.getInstance("SHA-256").digest(rawPassword.toString().getBytes(StandardCharsets.UTF_8));
+		}
+		catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
@@ -26,6 +26,8 @@ public class ControllerServerConfig extends ResourceServerConfigurerAdapter {
 	private static final String[] PUBLIC = { "/oauth/token", "/h2-console/**" };
 	private static final String[] OPERADOR_OR_ADMIN	 = { "/products/**", "/categories/**" };
 	private static final String[] ADMIN	 = { "/users/**" };
+	private static final String[] EXPORT = { "/products/export" };
+	private static final String[] ACTUATOR = { "/actuator/**" };
 		
 	@Autowired
 	private Environment environment;
@@ -46,9 +48,11 @@ public class ControllerServerConfig extends ResourceServerConfigurerAdapter {
 		
 		http.authorizeRequests()
 		.antMatchers(PUBLIC).permitAll()
+		.antMatchers(EXPORT).hasAnyRole("ADMIN", "OPERATOR")
 		.antMatchers(HttpMethod.GET, OPERADOR_OR_ADMIN).permitAll()
 		.antMatchers(OPERADOR_OR_ADMIN).hasAnyRole("ADMIN", "OPERATOR")
 		.antMatchers(ADMIN).hasRole("ADMIN")
+		.antMatchers(ACTUATOR).hasRole("ADMIN")
 		.anyRequest().authenticated();
 		
 		http.cors().configurationSource(corsConfigurationSource());
@@ -0,0 +1,53 @@
+package com.devsuperior.dscatalog.config;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.listener.lifecycle.JdbcLifecycleEventListener;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+
+/**
+ * Wraps the DataSource so every QueryExecutionListener bean sees each JDBC
+ * statement, whether it comes from Hibernate or from a JdbcTemplate. Result
+ * sets are proxied too when a JdbcLifecycleEventListener needs to see them.
+ * The DataSource is left untouched when no listener is registered.
+ */
+@Configuration
+public class DataSourceProxyConfig {
+
+	@Bean
+	public static BeanPostProcessor dataSourceProxyPostProcessor(ObjectProvider<QueryExecutionListener> listeners,
+			ObjectProvider<JdbcLifecycleEventListener> lifecycleListeners) {
+		return new BeanPostProcessor() {
+
+			@Override
+			public Object postProcessAfterInitialization(Object bean, String beanName) {
+				if (!(bean instanceof DataSource) || bean instanceof ProxyDataSource) {
+					return bean;
+				}
+				List<QueryExecutionListener> list = listeners.orderedStream().collect(Collectors.toList());
+				List<JdbcLifecycleEventListener> lifecycleList = lifecycleListeners.orderedStream()
+						.collect(Collectors.toList());
+				if (list.isEmpty() && lifecycleList.isEmpty()) {
+					return bean;
+				}
+				ProxyDataSourceBuilder builder = ProxyDataSourceBuilder.create((DataSource) bean).name(beanName);
+				list.forEach(builder::listener);
+				lifecycleList.forEach(builder::listener);
+				if (!lifecycleList.isEmpty()) {
+					builder.proxyResultSet();
+				}
+				return builder.build();
+			}
+		};
+	}
+}
@@ -0,0 +1,35 @@
+package com.devsuperior.dscatalog.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import com.devsuperior.dscatalog.services.exceptions.ServiceOverloadedException;
+
+/**
+ * DaoAuthenticationProvider that lets a login succeed when the password
+ * encoder is too busy to rehash an outdated password. The password has
+ * already been checked at that point; the rehash is retried on a later login.
+ */
+public class DeferredRehashAuthenticationProvider extends DaoAuthenticationProvider {
+	
+	private static Logger logger = LoggerFactory.getLogger(DeferredRehashAuthenticationProvider.class);
+	
+	@Override
+	protected Authentication createSuccessAuthentication(Object principal, Authentication authentication, UserDetails user) {
+		try {
+			return super.createSuccessAuthentication(principal, authentication, user);
+		}
+		catch (ServiceOverloadedException e) {
+			logger.info("Password rehash skipped, encoder overloaded " + user.getUsername());
+			// Same token AbstractUserDetailsAuthenticationProvider builds without an authorities mapper
+			UsernamePasswordAuthenticationToken result = new UsernamePasswordAuthenticationToken(principal,
+					authentication.getCredentials(), user.getAuthorities());
+			result.setDetails(authentication.getDetails());
+			return result;
+		}
+	}
+}
@@ -0,0 +1,61 @@
+package com.devsuperior.dscatalog.config;
+
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+
+import javax.cache.CacheManager;
+
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.devsuperior.dscatalog.entities.Category;
+import com.devsuperior.dscatalog.entities.Role;
+import com.devsuperior.dscatalog.entities.User;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+
+/**
+ * Second-level cache regions for reference data, served by Caffeine through
+ * JCache. Each application context gets its own provider, so regions are
+ * never shared between contexts.
+ */
+@Configuration
+public class HibernateCacheConfig {
+	
+	@Value("${catalog.cache.reference.max-size}")
+	private long referenceMaxSize;
+	
+	@Value("${catalog.cache.reference.ttl-seconds}")
+	private long referenceTtlSeconds;
+	
+	@Value("${catalog.cache.user-roles.max-size}")
+	private long userRolesMaxSize;
+	
+	@Value("${catalog.cache.user-roles.ttl-seconds}")
+	private long userRolesTtlSeconds;
+	
+	@Bean(destroyMethod = "close")
+	public CacheManager hibernateCacheManager() {
+		CacheManager cacheManager = new CaffeineCachingProvider().getCacheManager();
+		region(cacheManager, Category.class.getName(), referenceMaxSize, referenceTtlSeconds);
+		region(cacheManager, Role.class.getName(), referenceMaxSize, referenceTtlSeconds);
+		region(cacheManager, User.class.getName() + ".roles", userRolesMaxSize, userRolesTtlSeconds);
+		return cacheManager;
+	}
+	
+	@Bean
+	public HibernatePropertiesCustomizer hibernateCacheCustomizer(CacheManager hibernateCacheManager) {
+		return properties -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+	}
+	
+	private static void region(CacheManager cacheManager, String name, long maxSize, long ttlSeconds) {
+		CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+		configuration.setMaximumSize(OptionalLong.of(maxSize));
+		configuration.setExpireAfterWrite(OptionalLong.of(TimeUnit.SECONDS.toNanos(ttlSeconds)));
+		configuration.setStatisticsEnabled(true);
+		cacheManager.createCache(name, configuration);
+	}
+}
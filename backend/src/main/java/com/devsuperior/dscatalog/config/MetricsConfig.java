@@ -0,0 +1,105 @@
+package com.devsuperior.dscatalog.config;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.actuate.metrics.web.servlet.WebMvcTagsContributor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.data.repository.core.support.RepositoryMethodInvocationListener;
+import org.springframework.util.StringUtils;
+import org.springframework.web.method.HandlerMethod;
+
+import com.devsuperior.dscatalog.controllers.ProductController;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Adds the handler and product filter tags to the http.server.requests timers
+ * and times every repository method. Hikari, Hibernate and JVM meters come
+ * from the actuator auto-configuration.
+ */
+@Configuration
+public class MetricsConfig {
+
+	public static final String REPOSITORY_INVOCATIONS = "spring.data.repository.invocations";
+
+	private static final String NONE = "none";
+
+	@Bean
+	public WebMvcTagsContributor handlerTagsContributor() {
+		return new WebMvcTagsContributor() {
+
+			@Override
+			public Iterable<Tag> getTags(HttpServletRequest request, HttpServletResponse response, Object handler,
+					Throwable exception) {
+				return handlerTags(request, handler);
+			}
+
+			@Override
+			public Iterable<Tag> getLongRequestTags(HttpServletRequest request, Object handler) {
+				return handlerTags(request, handler);
+			}
+		};
+	}
+
+	@Bean
+	public static BeanPostProcessor repositoryMetricsPostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+		RepositoryMethodInvocationListener listener = invocation -> {
+			Throwable error = invocation.getResult().getError();
+			Timer.builder(REPOSITORY_INVOCATIONS)
+					.tag("repository", invocation.getRepositoryInterface().getSimpleName())
+					.tag("method", invocation.getMethod().getName())
+					.tag("state", invocation.getResult().getState().name())
+					.tag("exception", error == null ? NONE : error.getClass().getSimpleName())
+					.register(meterRegistry.getObject())
+					.record(invocation.getDuration(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+		};
+		return new BeanPostProcessor() {
+
+			@Override
+			public Object postProcessBeforeInitialization(Object bean, String beanName) {
+				if (bean instanceof RepositoryFactoryBeanSupport) {
+					((RepositoryFactoryBeanSupport<?, ?, ?>) bean)
+							.addRepositoryFactoryCustomizer(factory -> factory.addInvocationListener(listener));
+				}
+				return bean;
+			}
+		};
+	}
+
+	static Tags handlerTags(HttpServletRequest request, Object handler) {
+		if (!(handler instanceof HandlerMethod)) {
+			return Tags.of("handler", NONE, "filter", NONE);
+		}
+		HandlerMethod method = (HandlerMethod) handler;
+		String name = method.getBeanType().getSimpleName() + "." + method.getMethod().getName();
+		String filter = NONE;
+		if (method.getBeanType() == ProductController.class && method.getMethod().getName().equals("findAll")) {
+			filter = productFilter(request);
+		}
+		return Tags.of("handler", name, "filter", filter);
+	}
+
+	private static String productFilter(HttpServletRequest request) {
+		String categoryId = request.getParameter("categoryId");
+		boolean byCategory = StringUtils.hasText(request.getParameter("categoryIds"))
+				|| (StringUtils.hasText(categoryId) && !categoryId.trim().equals("0"));
+		boolean byName = StringUtils.hasText(request.getParameter("name"));
+		if (byCategory && byName) {
+			return "category_name";
+		}
+		if (byCategory) {
+			return "category";
+		}
+		return byName ? "name" : NONE;
+	}
+}
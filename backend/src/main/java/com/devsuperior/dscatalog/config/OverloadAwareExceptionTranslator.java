@@ -0,0 +1,51 @@
+package com.devsuperior.dscatalog.config;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.oauth2.common.exceptions.OAuth2Exception;
+import org.springframework.security.oauth2.provider.error.DefaultWebResponseExceptionTranslator;
+import org.springframework.security.oauth2.provider.error.WebResponseExceptionTranslator;
+
+import com.devsuperior.dscatalog.services.exceptions.ServiceOverloadedException;
+
+/**
+ * Maps ServiceOverloadedException raised while issuing a token to the
+ * temporarily_unavailable error with a Retry-After header. Everything else
+ * is translated as before.
+ */
+public class OverloadAwareExceptionTranslator implements WebResponseExceptionTranslator<OAuth2Exception> {
+	
+	private final WebResponseExceptionTranslator<OAuth2Exception> delegate = new DefaultWebResponseExceptionTranslator();
+	
+	@Override
+	public ResponseEntity<OAuth2Exception> translate(Exception e) throws Exception {
+		for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+			if (cause instanceof ServiceOverloadedException) {
+				return unavailable((ServiceOverloadedException) cause);
+			}
+		}
+		return delegate.translate(e);
+	}
+	
+	private static ResponseEntity<OAuth2Exception> unavailable(ServiceOverloadedException e) {
+		OAuth2Exception body = new OAuth2Exception(e.getMessage()) {
+			private static final long serialVersionUID = 1L;
+			
+			@Override
+			public String getOAuth2ErrorCode() {
+				return "temporarily_unavailable";
+			}
+			
+			@Override
+			public int getHttpErrorCode() {
+				return HttpStatus.SERVICE_UNAVAILABLE.value();
+			}
+		};
+		return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+				.header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+				.header(HttpHeaders.CACHE_CONTROL, "no-store")
+				.header(HttpHeaders.PRAGMA, "no-cache")
+				.body(body);
+	}
+}
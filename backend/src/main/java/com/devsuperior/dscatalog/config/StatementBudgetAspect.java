@@ -0,0 +1,46 @@
+package com.devsuperior.dscatalog.config;
+
+import java.lang.reflect.Method;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+
+import com.devsuperior.dscatalog.components.StatementBudget;
+import com.devsuperior.dscatalog.components.StatementBudgetTracker;
+
+/**
+ * Counts the statements of each transactional service method, commit
+ * included, so a request that blows its budget shows which method did it.
+ */
+@Aspect
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class StatementBudgetAspect {
+
+	private final StatementBudgetTracker tracker;
+
+	public StatementBudgetAspect(StatementBudgetTracker tracker) {
+		this.tracker = tracker;
+	}
+
+	@Around("@annotation(org.springframework.transaction.annotation.Transactional) && ("
+			+ "within(com.devsuperior.dscatalog.services.ProductService) || "
+			+ "within(com.devsuperior.dscatalog.services.CategoryService) || "
+			+ "within(com.devsuperior.dscatalog.services.UserService))")
+	public Object count(ProceedingJoinPoint joinPoint) throws Throwable {
+		Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+		StatementBudget budget = method.getAnnotation(StatementBudget.class);
+		StatementBudgetTracker.Scope scope = tracker.open(
+				method.getDeclaringClass().getSimpleName() + "." + method.getName(),
+				budget != null ? budget.value() : StatementBudget.UNLIMITED);
+		try {
+			return joinPoint.proceed();
+		}
+		finally {
+			tracker.close(scope);
+		}
+	}
+}
@@ -0,0 +1,32 @@
+package com.devsuperior.dscatalog.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.devsuperior.dscatalog.components.StatementBudgetTracker;
+
+@Configuration
+@ConditionalOnProperty(name = "catalog.sql.budget.enabled", havingValue = "true")
+public class StatementBudgetConfig implements WebMvcConfigurer {
+
+	@Value("${catalog.sql.budget.default-statements}")
+	private int defaultBudget;
+
+	@Autowired
+	private StatementBudgetTracker tracker;
+
+	@Override
+	public void addInterceptors(InterceptorRegistry registry) {
+		registry.addInterceptor(new StatementBudgetInterceptor(tracker, defaultBudget));
+	}
+
+	@Bean
+	public StatementBudgetAspect statementBudgetAspect() {
+		return new StatementBudgetAspect(tracker);
+	}
+}
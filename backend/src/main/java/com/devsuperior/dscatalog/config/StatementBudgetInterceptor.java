@@ -0,0 +1,60 @@
+package com.devsuperior.dscatalog.config;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import com.devsuperior.dscatalog.components.StatementBudget;
+import com.devsuperior.dscatalog.components.StatementBudgetTracker;
+
+/**
+ * Opens a statement budget scope around each handler method, using its
+ * StatementBudget or the default budget.
+ */
+public class StatementBudgetInterceptor implements AsyncHandlerInterceptor {
+
+	private static final String SCOPE = StatementBudgetInterceptor.class.getName() + ".scope";
+
+	private final StatementBudgetTracker tracker;
+	private final int defaultBudget;
+
+	public StatementBudgetInterceptor(StatementBudgetTracker tracker, int defaultBudget) {
+		this.tracker = tracker;
+		this.defaultBudget = defaultBudget;
+	}
+
+	@Override
+	public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+		if (handler instanceof HandlerMethod && request.getAttribute(SCOPE) == null) {
+			HandlerMethod method = (HandlerMethod) handler;
+			StatementBudget budget = method.getMethodAnnotation(StatementBudget.class);
+			String name = request.getMethod() + " " + request.getRequestURI() + " ("
+					+ method.getBeanType().getSimpleName() + "." + method.getMethod().getName() + ")";
+			request.setAttribute(SCOPE, tracker.open(name, budget != null ? budget.value() : defaultBudget));
+		}
+		return true;
+	}
+
+	@Override
+	public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+			Exception ex) {
+		close(request);
+	}
+
+	// The async part runs on another thread, so only the statements up to the hand-off are counted
+	@Override
+	public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+			Object handler) {
+		close(request);
+	}
+
+	private void close(HttpServletRequest request) {
+		Object scope = request.getAttribute(SCOPE);
+		if (scope != null) {
+			request.removeAttribute(SCOPE);
+			tracker.close((StatementBudgetTracker.Scope) scope);
+		}
+	}
+}
@@ -3,8 +3,8 @@ package com.devsuperior.dscatalog.controllers;
 import java.net.URI;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -13,11 +13,15 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import com.devsuperior.dscatalog.components.StatementBudget;
 import com.devsuperior.dscatalog.dto.CategoryDTO;
 import com.devsuperior.dscatalog.services.CategoryService;
+import com.devsuperior.dscatalog.services.CountMode;
+import com.devsuperior.dscatalog.services.ETags;
 
 @RestController
 @RequestMapping(value = "/categories")
@@ -26,18 +30,36 @@ public class CategoryController {
 	@Autowired
 	private CategoryService categoryService;
 	
+	@StatementBudget(2)
 	@GetMapping
-	public ResponseEntity<Page<CategoryDTO>> findAll(Pageable pageable) {
-		Page<CategoryDTO> list = categoryService.findAllPaged(pageable);
-		return ResponseEntity.ok().body(list);
+	public ResponseEntity<Slice<CategoryDTO>> findAll(
+				@RequestParam(value = "count", defaultValue = "exact") String count,
+				Pageable pageable
+			) {
+		// Taken before the body: a write in between only costs the client one extra download
+		String eTag = categoryService.getSnapshot().getETag();
+		Slice<CategoryDTO> list;
+		switch (CountMode.of(count)) {
+			case NONE:
+				list = categoryService.findAllSliced(pageable);
+				break;
+			case ESTIMATE:
+				list = categoryService.findAllEstimated(pageable);
+				break;
+			default:
+				list = categoryService.findAllPaged(pageable);
+		}
+		return ResponseEntity.ok().eTag(eTag).body(list);
 	}
 	
+	@StatementBudget(1)
 	@GetMapping(value = "/{id}")
 	public ResponseEntity<CategoryDTO> findById(@PathVariable Long id) {
 		CategoryDTO categoryDTO = categoryService.findById(id);
-		return ResponseEntity.ok().body(categoryDTO);
+		return ResponseEntity.ok().eTag(ETags.of(categoryDTO)).body(categoryDTO);
 	}
 	
+	@StatementBudget(2)
 	@PostMapping
 	public ResponseEntity<CategoryDTO> insert(@RequestBody CategoryDTO categoryDTO){
 		categoryDTO = categoryService.insert(categoryDTO);
@@ -46,12 +68,14 @@ public class CategoryController {
 		return ResponseEntity.created(uri).body(categoryDTO);
 	}
 	
+	@StatementBudget(3)
 	@PutMapping(value = "/{id}")
 	public ResponseEntity<CategoryDTO> update(@PathVariable Long id, @RequestBody CategoryDTO categoryDTO){
 		categoryDTO = categoryService.update(id, categoryDTO);
 		return ResponseEntity.ok().body(categoryDTO);
 	}
 	
+	@StatementBudget(3)
 	@DeleteMapping(value = "/{id}")
 	public ResponseEntity<Void> delete(@PathVariable Long id){
 		categoryService.delete(id);
@@ -1,12 +1,22 @@
 package com.devsuperior.dscatalog.controllers;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -17,9 +27,23 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import com.devsuperior.dscatalog.components.StatementBudget;
+import com.devsuperior.dscatalog.config.AsyncTimeoutInterceptor;
+import com.devsuperior.dscatalog.dto.CursorPageDTO;
+import com.devsuperior.dscatalog.dto.FacetDTO;
+import com.devsuperior.dscatalog.dto.FacetedResultDTO;
 import com.devsuperior.dscatalog.dto.ProductDTO;
+import com.devsuperior.dscatalog.dto.ProductImportResultDTO;
+import com.devsuperior.dscatalog.services.CategoryMatch;
+import com.devsuperior.dscatalog.services.CountMode;
+import com.devsuperior.dscatalog.services.ETags;
+import com.devsuperior.dscatalog.services.ExportFormat;
+import com.devsuperior.dscatalog.services.ProductExportService;
+import com.devsuperior.dscatalog.services.ProductImportService;
 import com.devsuperior.dscatalog.services.ProductService;
 
 @RestController
@@ -29,22 +53,87 @@ public class ProductController {
 	@Autowired
 	private ProductService productService;
 	
+	@Autowired
+	private ProductImportService productImportService;
+	
+	@Autowired
+	private ProductExportService productExportService;
+	
+	// Same cap as Pageable listings
+	@Value("${spring.data.web.pageable.max-page-size:2000}")
+	private int maxPageSize;
+	
+	@Value("${catalog.export.timeout}")
+	private Duration exportTimeout;
+	
+	@StatementBudget(3)
 	@GetMapping
-	public ResponseEntity<Page<ProductDTO>> findAll(
+	public ResponseEntity<FacetedResultDTO<ProductDTO>> findAll(
 				@RequestParam(value = "categoryId", defaultValue = "0") Long categoryId,
+				@RequestParam(value = "categoryIds", defaultValue = "") List<Long> categoryIds,
+				@RequestParam(value = "match", defaultValue = "any") String match,
 				@RequestParam(value = "name", defaultValue = "") String name,
+				@RequestParam(value = "count", defaultValue = "exact") String count,
+				@RequestParam(value = "facets", defaultValue = "false") Boolean facets,
 				Pageable pageable
 			) {
-		Page<ProductDTO> list = productService.findAllPaged(categoryId, name.trim(), pageable);
+		List<Long> categories = new ArrayList<>(categoryIds);
+		if (categoryId != 0) {
+			categories.add(categoryId);
+		}
+		CategoryMatch categoryMatch = CategoryMatch.of(match);
+		Slice<ProductDTO> list;
+		switch (CountMode.of(count)) {
+			case NONE:
+				list = productService.findAllSliced(categories, categoryMatch, name.trim(), pageable);
+				break;
+			case ESTIMATE:
+				list = productService.findAllEstimated(categories, categoryMatch, name.trim(), pageable);
+				break;
+			default:
+				list = productService.findAllPaged(categories, categoryMatch, name.trim(), pageable);
+		}
+		List<FacetDTO> facetList = facets ? productService.findFacets(categories, categoryMatch, name.trim()) : null;
+		return ResponseEntity.ok().body(new FacetedResultDTO<>(list, facetList));
+	}
+	
+	@StatementBudget(3)
+	@GetMapping(params = "after")
+	public ResponseEntity<CursorPageDTO<ProductDTO>> findAllAfter(
+				@RequestParam(value = "categoryId", defaultValue = "0") Long categoryId,
+				@RequestParam(value = "name", defaultValue = "") String name,
+				@RequestParam(value = "sort", defaultValue = "id") String sort,
+				@RequestParam(value = "after") String after,
+				@RequestParam(value = "size", defaultValue = "12") Integer size
+			) {
+		CursorPageDTO<ProductDTO> list = productService.findAllAfter(categoryId, name.trim(), sort.trim(), after.trim(), Math.min(Math.max(size, 1), maxPageSize));
 		return ResponseEntity.ok().body(list);
 	}
 	
+	@StatementBudget(1)
+	@GetMapping(value = "/export")
+	public ResponseEntity<StreamingResponseBody> export(@RequestParam(value = "format", defaultValue = "ndjson") String format,
+			HttpServletRequest request) {
+		ExportFormat exportFormat = ExportFormat.of(format);
+		request.setAttribute(AsyncTimeoutInterceptor.TIMEOUT_ATTRIBUTE, exportTimeout.toMillis());
+		StreamingResponseBody body = out -> productExportService.export(exportFormat, out);
+		return ResponseEntity.ok().contentType(exportFormat.getMediaType()).body(body);
+	}
+	
+	@StatementBudget(3)
 	@GetMapping(value = "/{id}")
-	public ResponseEntity<ProductDTO> findById(@PathVariable Long id) {
+	public ResponseEntity<ProductDTO> findById(@PathVariable Long id, WebRequest request) {
+		if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+			String eTag = productService.findETag(id);
+			if (request.checkNotModified(eTag)) {
+				return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+			}
+		}
 		ProductDTO productDTO = productService.findById(id);
-		return ResponseEntity.ok().body(productDTO);
+		return ResponseEntity.ok().eTag(ETags.of(productDTO)).body(productDTO);
 	}
 	
+	@StatementBudget(4)
 	@PostMapping
 	public ResponseEntity<ProductDTO> insert(@Valid @RequestBody ProductDTO productDTO){
 		productDTO = productService.insert(productDTO);
@@ -53,12 +142,22 @@ public class ProductController {
 		return ResponseEntity.created(uri).body(productDTO);
 	}
 	
+	// A fixed number of statements per chunk, so the total grows with the body
+	@StatementBudget(StatementBudget.UNLIMITED)
+	@PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+	public ResponseEntity<List<ProductImportResultDTO>> insertBatch(InputStream body) throws IOException {
+		List<ProductImportResultDTO> results = productImportService.importAll(body);
+		return ResponseEntity.ok().body(results);
+	}
+	
+	@StatementBudget(4)
 	@PutMapping(value = "/{id}")
 	public ResponseEntity<ProductDTO> update(@PathVariable Long id, @Valid @RequestBody ProductDTO productDTO){
 		productDTO = productService.update(id, productDTO);
 		return ResponseEntity.ok().body(productDTO);
 	}
 	
+	@StatementBudget(3)
 	@DeleteMapping(value = "/{id}")
 	public ResponseEntity<Void> delete(@PathVariable Long id){
 		productService.delete(id);
@@ -18,6 +18,7 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import com.devsuperior.dscatalog.components.StatementBudget;
 import com.devsuperior.dscatalog.dto.UserDTO;
 import com.devsuperior.dscatalog.dto.UserInsertDTO;
 import com.devsuperior.dscatalog.dto.UserUpdateDTO;
@@ -30,18 +31,21 @@ public class UserController {
 	@Autowired
 	private UserService userService;
 	
+	@StatementBudget(3)
 	@GetMapping
 	public ResponseEntity<Page<UserDTO>> findAll(Pageable pageable) {
 		Page<UserDTO> list = userService.findAllPaged(pageable);
 		return ResponseEntity.ok().body(list);
 	}
 	
+	@StatementBudget(2)
 	@GetMapping(value = "/{id}")
 	public ResponseEntity<UserDTO> findById(@PathVariable Long id) {
 		UserDTO userDTO = userService.findById(id);
 		return ResponseEntity.ok().body(userDTO);
 	}
 	
+	@StatementBudget(4)
 	@PostMapping
 	public ResponseEntity<UserDTO> insert(@Valid @RequestBody UserInsertDTO userInsertDTO){
 		UserDTO userDTO = userService.insert(userInsertDTO);
@@ -49,12 +53,14 @@ public class UserController {
 		return ResponseEntity.created(uri).body(userDTO);
 	}
 	
+	@StatementBudget(5)
 	@PutMapping(value = "/{id}")
 	public ResponseEntity<UserDTO> update(@PathVariable Long id, @Valid @RequestBody UserUpdateDTO userUpdateDTO){
 		UserDTO userDTO = userService.update(id, userUpdateDTO);
 		return ResponseEntity.ok().body(userDTO);
 	}
 	
+	@StatementBudget(3)
 	@DeleteMapping(value = "/{id}")
 	public ResponseEntity<Void> delete(@PathVariable Long id){
 		userService.delete(id);
@@ -0,0 +1,20 @@
+package com.devsuperior.dscatalog.controllers.exceptions;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.devsuperior.dscatalog.dto.ProductImportResultDTO;
+
+public class ImportError extends StandardError {
+	private static final long serialVersionUID = 1L;
+	
+	private List<ProductImportResultDTO> results = new ArrayList<>();
+
+	public List<ProductImportResultDTO> getResults() {
+		return results;
+	}
+
+	public void setResults(List<ProductImportResultDTO> results) {
+		this.results = results;
+	}
+}
@@ -3,6 +3,7 @@ package com.devsuperior.dscatalog.dto;
 import java.io.Serializable;
 
 import com.devsuperior.dscatalog.entities.Category;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 
 public class CategoryDTO implements Serializable{
 	private static final long serialVersionUID = 1L;
@@ -10,6 +11,9 @@ public class CategoryDTO implements Serializable{
 	private Long id;
 	private String name;
 	
+	@JsonIgnore
+	private Long version;
+	
 	public CategoryDTO() {
 	}
 
@@ -23,6 +27,7 @@ public class CategoryDTO implements Serializable{
 		super();
 		this.id = entity.getId();
 		this.name = entity.getName();
+		this.version = entity.getVersion();
 	}
 
 	public Long getId() {
@@ -40,4 +45,8 @@ public class CategoryDTO implements Serializable{
 	public void setName(String name) {
 		this.name = name;
 	}
+
+	public Long getVersion() {
+		return version;
+	}
 }
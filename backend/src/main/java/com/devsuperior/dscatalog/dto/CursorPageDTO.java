@@ -0,0 +1,35 @@
+package com.devsuperior.dscatalog.dto;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+public class CursorPageDTO<T> implements Serializable {
+	private static final long serialVersionUID = 1L;
+	
+	private List<T> content = new ArrayList<>();
+	private Integer size;
+	private String nextCursor;
+	
+	public CursorPageDTO() {
+	}
+
+	public CursorPageDTO(List<T> content, Integer size, String nextCursor) {
+		super();
+		this.content = content;
+		this.size = size;
+		this.nextCursor = nextCursor;
+	}
+
+	public List<T> getContent() {
+		return content;
+	}
+
+	public Integer getSize() {
+		return size;
+	}
+
+	public String getNextCursor() {
+		return nextCursor;
+	}
+}
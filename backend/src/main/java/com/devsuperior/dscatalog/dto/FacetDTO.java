@@ -0,0 +1,33 @@
+package com.devsuperior.dscatalog.dto;
+
+import java.io.Serializable;
+
+public class FacetDTO implements Serializable {
+	private static final long serialVersionUID = 1L;
+	
+	private Long categoryId;
+	private String categoryName;
+	private Long count;
+	
+	public FacetDTO() {
+	}
+
+	public FacetDTO(Long categoryId, String categoryName, Long count) {
+		super();
+		this.categoryId = categoryId;
+		this.categoryName = categoryName;
+		this.count = count;
+	}
+
+	public Long getCategoryId() {
+		return categoryId;
+	}
+
+	public String getCategoryName() {
+		return categoryName;
+	}
+
+	public Long getCount() {
+		return count;
+	}
+}
@@ -0,0 +1,36 @@
+package com.devsuperior.dscatalog.dto;
+
+import java.io.Serializable;
+import java.util.List;
+
+import org.springframework.data.domain.Slice;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+
+public class FacetedResultDTO<T> implements Serializable {
+	private static final long serialVersionUID = 1L;
+	
+	@JsonUnwrapped
+	private Slice<T> result;
+	
+	@JsonInclude(JsonInclude.Include.NON_NULL)
+	private List<FacetDTO> facets;
+	
+	public FacetedResultDTO() {
+	}
+
+	public FacetedResultDTO(Slice<T> result, List<FacetDTO> facets) {
+		super();
+		this.result = result;
+		this.facets = facets;
+	}
+
+	public Slice<T> getResult() {
+		return result;
+	}
+
+	public List<FacetDTO> getFacets() {
+		return facets;
+	}
+}
@@ -13,6 +13,7 @@ import javax.validation.constraints.Size;
 
 import com.devsuperior.dscatalog.entities.Category;
 import com.devsuperior.dscatalog.entities.Product;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 
 public class ProductDTO implements Serializable {
 	private static final long serialVersionUID = 1L;
@@ -35,6 +36,9 @@ public class ProductDTO implements Serializable {
 	
 	private List<CategoryDTO> categories = new ArrayList<>();
 	
+	@JsonIgnore
+	private Long version;
+	
 	public ProductDTO() {
 	}
 
@@ -56,6 +60,7 @@ public class ProductDTO implements Serializable {
 		this.price = product.getPrice();
 		this.imgUrl = product.getImgUrl();
 		this.date = product.getDate();
+		this.version = product.getVersion();
 	}
 	
 	public ProductDTO(Product product, Set<Category> category) {
@@ -118,4 +123,8 @@ public class ProductDTO implements Serializable {
 	public void setCategories(List<CategoryDTO> categories) {
 		this.categories = categories;
 	}
+
+	public Long getVersion() {
+		return version;
+	}
 }
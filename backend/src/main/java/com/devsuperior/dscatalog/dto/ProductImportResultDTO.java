@@ -0,0 +1,58 @@
+package com.devsuperior.dscatalog.dto;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.devsuperior.dscatalog.controllers.exceptions.FieldMessage;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+public class ProductImportResultDTO implements Serializable {
+	private static final long serialVersionUID = 1L;
+	
+	public enum Status {
+		CREATED, INVALID, FAILED
+	}
+	
+	private int index;
+	private Long id;
+	private Status status;
+	private List<FieldMessage> errors = new ArrayList<>();
+	
+	public ProductImportResultDTO() {
+	}
+
+	public ProductImportResultDTO(int index) {
+		super();
+		this.index = index;
+	}
+
+	public int getIndex() {
+		return index;
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public void setId(Long id) {
+		this.id = id;
+	}
+
+	public Status getStatus() {
+		return status;
+	}
+
+	public void setStatus(Status status) {
+		this.status = status;
+	}
+
+	public List<FieldMessage> getErrors() {
+		return errors;
+	}
+	
+	public void addError(String fieldName, String message) {
+		errors.add(new FieldMessage(fieldName, message));
+	}
+}
@@ -15,9 +15,16 @@ import javax.persistence.ManyToMany;
 import javax.persistence.PrePersist;
 import javax.persistence.PreUpdate;
 import javax.persistence.Table;
+import javax.persistence.Version;
+
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
 @Table(name = "tb_category")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@BatchSize(size = 50)
 public class Category implements Serializable{
 	private static final long serialVersionUID = 1L;
 	
@@ -35,6 +42,10 @@ public class Category implements Serializable{
 	@ManyToMany(mappedBy = "categories")
 	private Set<Product> products = new HashSet<>();
 	
+	@Version
+	@Column(nullable = false, columnDefinition = "BIGINT DEFAULT 0")
+	private Long version;
+	
 	public Category() {
 	}
 
@@ -82,6 +93,10 @@ public class Category implements Serializable{
 		return products;
 	}
 
+	public Long getVersion() {
+		return version;
+	}
+
 	@Override
 	public int hashCode() {
 		return Objects.hash(id);
@@ -11,13 +11,15 @@ import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.JoinColumn;
 import javax.persistence.JoinTable;
 import javax.persistence.ManyToMany;
 import javax.persistence.Table;
+import javax.persistence.Version;
 
 @Entity
-@Table(name = "tb_product")
+@Table(name = "tb_product", indexes = @Index(columnList = "name, id"))
 public class Product implements Serializable {
 	private static final long serialVersionUID = 1L;
 	
@@ -41,6 +43,10 @@ public class Product implements Serializable {
 			inverseJoinColumns = @JoinColumn(name = "category_id"))
 	private Set<Category> categories = new HashSet<>();
 	
+	@Version
+	@Column(nullable = false, columnDefinition = "BIGINT DEFAULT 0")
+	private Long version;
+	
 	public Product() {
 	}
 
@@ -106,6 +112,10 @@ public class Product implements Serializable {
 		return categories;
 	}
 
+	public Long getVersion() {
+		return version;
+	}
+
 	@Override
 	public int hashCode() {
 		return Objects.hash(id);
@@ -0,0 +1,68 @@
+package com.devsuperior.dscatalog.entities;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.Objects;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+/**
+ * A refresh token that has already been exchanged, keyed by a SHA-256 of its
+ * encoded value and kept until the token would have expired anyway.
+ */
+@Entity
+@Table(name = "tb_revoked_token")
+public class RevokedToken implements Serializable {
+	private static final long serialVersionUID = 1L;
+	
+	@Id
+	@Column(length = 44)
+	private String id;
+	
+	@Column(columnDefinition = "TIMESTAMP WITHOUT TIME ZONE")
+	private Instant expiresAt;
+	
+	public RevokedToken() {
+	}
+
+	public RevokedToken(String id, Instant expiresAt) {
+		this.id = id;
+		this.expiresAt = expiresAt;
+	}
+
+	public String getId() {
+		return id;
+	}
+
+	public void setId(String id) {
+		this.id = id;
+	}
+
+	public Instant getExpiresAt() {
+		return expiresAt;
+	}
+
+	public void setExpiresAt(Instant expiresAt) {
+		this.expiresAt = expiresAt;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(id);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		RevokedToken other = (RevokedToken) obj;
+		return Objects.equals(id, other.id);
+	}
+}
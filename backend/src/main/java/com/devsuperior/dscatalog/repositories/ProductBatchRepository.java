@@ -0,0 +1,75 @@
+package com.devsuperior.dscatalog.repositories;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.devsuperior.dscatalog.dto.CategoryDTO;
+import com.devsuperior.dscatalog.dto.ProductDTO;
+
+/**
+ * Plain JDBC batch inserts for bulk imports. IDENTITY ids make Hibernate
+ * insert row by row, so ids are taken in blocks from the sequence behind
+ * tb_product.id instead and the rows are written with explicit ids.
+ */
+@Repository
+public class ProductBatchRepository {
+	
+	private static final String INSERT_PRODUCT = "INSERT INTO tb_product (id, name, description, price, img_url, date, version) "
+			+ "VALUES (?, ?, ?, ?, ?, ?, 0)";
+	private static final String INSERT_CATEGORY = "INSERT INTO tb_product_category (product_id, category_id) VALUES (?, ?)";
+	
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+	
+	private String nextIdsSql;
+	
+	@PostConstruct
+	public void init() {
+		String nextId = jdbcTemplate.execute((ConnectionCallback<String>) conn -> conn.getMetaData().getDatabaseProductName())
+				.equals("PostgreSQL") ? postgresNextId() : columnDefaultNextId();
+		if (nextId == null) {
+			throw new IllegalStateException("No sequence found behind tb_product.id");
+		}
+		nextIdsSql = "WITH RECURSIVE seq(n) AS (SELECT 1 UNION ALL SELECT n + 1 FROM seq WHERE n < ?) "
+				+ "SELECT " + nextId + " FROM seq";
+	}
+	
+	// Works for serial and identity columns alike, and resolves the table through the search_path as inserts do
+	private String postgresNextId() {
+		String sequence = jdbcTemplate.queryForObject("SELECT pg_get_serial_sequence('tb_product', 'id')", String.class);
+		return sequence == null ? null : "nextval('" + sequence.replace("'", "''") + "')";
+	}
+	
+	// Elsewhere (H2) the column default is the sequence call itself, looked up in the current schema only
+	private String columnDefaultNextId() {
+		return jdbcTemplate.queryForObject("SELECT COLUMN_DEFAULT FROM INFORMATION_SCHEMA.COLUMNS "
+				+ "WHERE TABLE_SCHEMA = CURRENT_SCHEMA AND LOWER(TABLE_NAME) = 'tb_product' AND LOWER(COLUMN_NAME) = 'id'",
+				String.class);
+	}
+	
+	public List<Long> nextIds(int count) {
+		return jdbcTemplate.queryForList(nextIdsSql, Long.class, count);
+	}
+	
+	// Products must already carry ids from nextIds
+	public void insert(List<ProductDTO> products) {
+		List<Object[]> productRows = new ArrayList<>(products.size());
+		List<Object[]> categoryRows = new ArrayList<>();
+		for (ProductDTO product : products) {
+			productRows.add(new Object[] { product.getId(), product.getName(), product.getDescription(), product.getPrice(),
+					product.getImgUrl(), product.getDate() == null ? null : Timestamp.from(product.getDate()) });
+			product.getCategories().stream().map(CategoryDTO::getId).distinct()
+					.forEach(categoryId -> categoryRows.add(new Object[] { product.getId(), categoryId }));
+		}
+		jdbcTemplate.batchUpdate(INSERT_PRODUCT, productRows);
+		jdbcTemplate.batchUpdate(INSERT_CATEGORY, categoryRows);
+	}
+}
@@ -0,0 +1,76 @@
+package com.devsuperior.dscatalog.repositories;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.function.Consumer;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.stereotype.Repository;
+
+import com.devsuperior.dscatalog.dto.CategoryDTO;
+import com.devsuperior.dscatalog.dto.ProductDTO;
+
+/**
+ * Forward-only read of the whole catalog. Rows arrive ordered by product id,
+ * so each product is complete as soon as the id changes and only one is held
+ * in memory at a time.
+ */
+@Repository
+public class ProductExportRepository {
+	
+	private static final String SELECT_ALL = "SELECT p.id, p.name, p.description, p.price, p.img_url, p.date, "
+			+ "c.id AS category_id, c.name AS category_name FROM tb_product p "
+			+ "LEFT JOIN tb_product_category pc ON pc.product_id = p.id "
+			+ "LEFT JOIN tb_category c ON c.id = pc.category_id "
+			+ "ORDER BY p.id, c.id";
+	
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+	
+	@Value("${catalog.export.fetch-size}")
+	private int fetchSize;
+	
+	private JdbcTemplate cursorTemplate;
+	
+	@PostConstruct
+	public void init() {
+		cursorTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+		cursorTemplate.setFetchSize(fetchSize);
+	}
+	
+	// Postgres only honours the fetch size inside a transaction, so callers must run in one
+	public void forEach(Consumer<ProductDTO> action) {
+		cursorTemplate.query(SELECT_ALL, (ResultSetExtractor<Void>) rs -> {
+			ProductDTO current = null;
+			while (rs.next()) {
+				long id = rs.getLong("id");
+				if (current == null || current.getId() != id) {
+					if (current != null) {
+						action.accept(current);
+					}
+					current = toProduct(id, rs);
+				}
+				long categoryId = rs.getLong("category_id");
+				if (!rs.wasNull()) {
+					current.getCategories().add(new CategoryDTO(categoryId, rs.getString("category_name")));
+				}
+			}
+			if (current != null) {
+				action.accept(current);
+			}
+			return null;
+		});
+	}
+	
+	private static ProductDTO toProduct(long id, ResultSet rs) throws SQLException {
+		Timestamp date = rs.getTimestamp("date");
+		return new ProductDTO(id, rs.getString("name"), rs.getString("description"), rs.getObject("price", Double.class),
+				rs.getString("img_url"), date == null ? null : date.toInstant());
+	}
+}
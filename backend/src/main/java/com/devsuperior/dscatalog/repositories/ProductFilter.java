@@ -0,0 +1,49 @@
+package com.devsuperior.dscatalog.repositories;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Listing filter for {@link ProductRepositoryCustom}: either category and
+ * name predicates evaluated by the database, or an id set resolved in memory,
+ * optionally narrowed by the name predicate.
+ */
+public class ProductFilter {
+	
+	private final Collection<Long> ids;
+	private final List<Long> categoryIds;
+	private final boolean matchAll;
+	private final String name;
+	
+	private ProductFilter(Collection<Long> ids, List<Long> categoryIds, boolean matchAll, String name) {
+		this.ids = ids;
+		this.categoryIds = categoryIds;
+		this.matchAll = matchAll;
+		this.name = name;
+	}
+	
+	public static ProductFilter of(List<Long> categoryIds, boolean matchAll, String name) {
+		return new ProductFilter(null, categoryIds, matchAll, name);
+	}
+	
+	public static ProductFilter ofIds(Collection<Long> ids, String name) {
+		return new ProductFilter(ids, Collections.emptyList(), false, name);
+	}
+	
+	public Collection<Long> getIds() {
+		return ids;
+	}
+
+	public List<Long> getCategoryIds() {
+		return categoryIds;
+	}
+
+	public boolean isMatchAll() {
+		return matchAll;
+	}
+
+	public String getName() {
+		return name;
+	}
+}
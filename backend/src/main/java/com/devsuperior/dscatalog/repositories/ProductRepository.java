@@ -12,13 +12,34 @@ import com.devsuperior.dscatalog.entities.Category;
 import com.devsuperior.dscatalog.entities.Product;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long>{
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductRepositoryCustom {
 	
 	@Query("SELECT DISTINCT obj FROM Product obj INNER JOIN obj.categories cats WHERE "
 			+ "(COALESCE(:categories) IS NULL OR cats IN :categories) AND "
 			+ "(:name = '' OR LOWER(obj.name) LIKE LOWER(CONCAT('%',:name,'%')) )")
 	Page<Product> find(List<Category> categories, String name, Pageable pageable);
 	
+	@Query("SELECT DISTINCT obj FROM Product obj INNER JOIN obj.categories cats WHERE "
+			+ "(:categoryId = 0L OR cats.id = :categoryId) AND "
+			+ "(:name = '' OR LOWER(obj.name) LIKE LOWER(CONCAT('%',:name,'%')) ) AND "
+			+ "obj.id > :lastId ORDER BY obj.id")
+	List<Product> findAfterId(Long categoryId, String name, Long lastId, Pageable pageable);
+	
+	@Query("SELECT DISTINCT obj FROM Product obj INNER JOIN obj.categories cats WHERE "
+			+ "(:categoryId = 0L OR cats.id = :categoryId) AND "
+			+ "(:name = '' OR LOWER(obj.name) LIKE LOWER(CONCAT('%',:name,'%')) ) AND "
+			+ "(obj.name > :lastName OR (obj.name = :lastName AND obj.id > :lastId)) ORDER BY obj.name, obj.id")
+	List<Product> findAfterName(Long categoryId, String name, String lastName, Long lastId, Pageable pageable);
+	
 	@Query("SELECT obj FROM Product obj JOIN FETCH obj.categories WHERE obj IN :products")
 	List<Product> findProductsWithCategories(List<Product> products);
+	
+	@Query("SELECT obj.id, obj.name FROM Product obj")
+	List<Object[]> findAllNames();
+	
+	@Query("SELECT obj.id, cats.id FROM Product obj INNER JOIN obj.categories cats")
+	List<Object[]> findAllCategoryLinks();
+	
+	@Query("SELECT obj.version, cats.id, cats.version FROM Product obj LEFT JOIN obj.categories cats WHERE obj.id = :id")
+	List<Object[]> findVersions(Long id);
 }
\ No newline at end of file
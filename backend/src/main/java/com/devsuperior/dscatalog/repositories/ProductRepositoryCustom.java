@@ -0,0 +1,20 @@
+package com.devsuperior.dscatalog.repositories;
+
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import com.devsuperior.dscatalog.dto.ProductDTO;
+
+public interface ProductRepositoryCustom {
+	
+	List<ProductDTO> findProjected(ProductFilter filter, Pageable pageable);
+	
+	Slice<ProductDTO> findProjectedSlice(ProductFilter filter, Pageable pageable);
+	
+	long countProjected(ProductFilter filter);
+	
+	Map<Long, Long> countByCategory(ProductFilter filter);
+}
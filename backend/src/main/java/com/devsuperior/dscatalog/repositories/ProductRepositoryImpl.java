@@ -0,0 +1,156 @@
+package com.devsuperior.dscatalog.repositories;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+
+import org.hibernate.query.NativeQuery;
+import org.hibernate.type.InstantType;
+import org.hibernate.type.StandardBasicTypes;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+
+import com.devsuperior.dscatalog.dto.CategoryDTO;
+import com.devsuperior.dscatalog.dto.ProductDTO;
+import com.devsuperior.dscatalog.services.exceptions.BadRequestException;
+
+/**
+ * Product listing read straight into DTOs: the page of products is selected in a
+ * bounded derived table and joined with its categories in the same statement.
+ */
+public class ProductRepositoryImpl implements ProductRepositoryCustom {
+	
+	private static final Map<String, String> SORT_COLUMNS = Map.of(
+			"id", "p.id",
+			"name", "p.name",
+			"price", "p.price",
+			"date", "p.date");
+	
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Override
+	public List<ProductDTO> findProjected(ProductFilter filter, Pageable pageable) {
+		return findProjected(filter, pageable.getSort(), pageable.getOffset(), pageable.getPageSize());
+	}
+	
+	// One extra row tells whether a next page exists, so no count query is needed
+	@Override
+	public Slice<ProductDTO> findProjectedSlice(ProductFilter filter, Pageable pageable) {
+		List<ProductDTO> content = findProjected(filter, pageable.getSort(), pageable.getOffset(), pageable.getPageSize() + 1);
+		boolean hasNext = content.size() > pageable.getPageSize();
+		return new SliceImpl<>(hasNext ? content.subList(0, pageable.getPageSize()) : content, pageable, hasNext);
+	}
+	
+	@Override
+	public long countProjected(ProductFilter filter) {
+		Query query = entityManager.createNativeQuery("SELECT COUNT(*) FROM tb_product p " + where(filter));
+		bind(query, filter);
+		return ((Number) query.getSingleResult()).longValue();
+	}
+	
+	@Override
+	public Map<Long, Long> countByCategory(ProductFilter filter) {
+		Query query = entityManager.createNativeQuery("SELECT f.category_id, COUNT(*) FROM tb_product_category f "
+				+ "WHERE f.product_id IN (SELECT p.id FROM tb_product p " + where(filter) + ") "
+				+ "GROUP BY f.category_id");
+		bind(query, filter);
+		Map<Long, Long> counts = new TreeMap<>();
+		for (Object row : query.getResultList()) {
+			Object[] cols = (Object[]) row;
+			counts.put(((Number) cols[0]).longValue(), ((Number) cols[1]).longValue());
+		}
+		return counts;
+	}
+	
+	private List<ProductDTO> findProjected(ProductFilter filter, Sort sort, long offset, int limit) {
+		String orderBy = orderBy(sort);
+		String sql = "SELECT p.id, p.name, p.description, p.price, p.img_url, p.date, c.id AS category_id, c.name AS category_name "
+				+ "FROM (SELECT p.id, p.name, p.description, p.price, p.img_url, p.date FROM tb_product p "
+				+ where(filter) + orderBy + " LIMIT :limit OFFSET :offset) p "
+				+ "INNER JOIN tb_product_category pc ON pc.product_id = p.id "
+				+ "INNER JOIN tb_category c ON c.id = pc.category_id" + orderBy;
+		
+		Query query = entityManager.createNativeQuery(sql);
+		query.unwrap(NativeQuery.class)
+			.addScalar("id", StandardBasicTypes.LONG)
+			.addScalar("name", StandardBasicTypes.STRING)
+			.addScalar("description", StandardBasicTypes.STRING)
+			.addScalar("price", StandardBasicTypes.DOUBLE)
+			.addScalar("img_url", StandardBasicTypes.STRING)
+			.addScalar("date", InstantType.INSTANCE)
+			.addScalar("category_id", StandardBasicTypes.LONG)
+			.addScalar("category_name", StandardBasicTypes.STRING);
+		bind(query, filter);
+		query.setParameter("limit", limit);
+		query.setParameter("offset", offset);
+		
+		Map<Long, ProductDTO> products = new LinkedHashMap<>();
+		for (Object row : query.getResultList()) {
+			Object[] cols = (Object[]) row;
+			ProductDTO dto = products.computeIfAbsent((Long) cols[0], id -> new ProductDTO(id, (String) cols[1],
+					(String) cols[2], (Double) cols[3], (String) cols[4], (Instant) cols[5]));
+			dto.getCategories().add(new CategoryDTO((Long) cols[6], (String) cols[7]));
+		}
+		return new ArrayList<>(products.values());
+	}
+	
+	private static String where(ProductFilter filter) {
+		StringBuilder where = new StringBuilder("WHERE ");
+		if (filter.getIds() != null) {
+			where.append("p.id IN (:ids)");
+		}
+		else if (filter.getCategoryIds().isEmpty()) {
+			where.append("EXISTS (SELECT 1 FROM tb_product_category pc WHERE pc.product_id = p.id)");
+		}
+		else if (filter.isMatchAll()) {
+			where.append("p.id IN (SELECT pc.product_id FROM tb_product_category pc WHERE pc.category_id IN (:categoryIds) "
+					+ "GROUP BY pc.product_id HAVING COUNT(*) = :categoryCount)");
+		}
+		else {
+			where.append("p.id IN (SELECT pc.product_id FROM tb_product_category pc WHERE pc.category_id IN (:categoryIds))");
+		}
+		if (!filter.getName().isEmpty()) {
+			where.append(" AND LOWER(p.name) LIKE :name");
+		}
+		return where.toString();
+	}
+	
+	private static void bind(Query query, ProductFilter filter) {
+		if (!filter.getCategoryIds().isEmpty()) {
+			query.setParameter("categoryIds", filter.getCategoryIds());
+			if (filter.isMatchAll()) {
+				query.setParameter("categoryCount", (long) new HashSet<>(filter.getCategoryIds()).size());
+			}
+		}
+		if (filter.getIds() != null) {
+			query.setParameter("ids", filter.getIds());
+		}
+		if (!filter.getName().isEmpty()) {
+			query.setParameter("name", "%" + filter.getName().toLowerCase(Locale.ROOT) + "%");
+		}
+	}
+	
+	private static String orderBy(Sort sort) {
+		StringBuilder orderBy = new StringBuilder(" ORDER BY ");
+		for (Sort.Order order : sort) {
+			String column = SORT_COLUMNS.get(order.getProperty());
+			if (column == null) {
+				throw new BadRequestException("Unsupported sort " + order.getProperty());
+			}
+			orderBy.append(column).append(order.isAscending() ? " ASC, " : " DESC, ");
+		}
+		return orderBy.append("p.id").toString();
+	}
+}
@@ -0,0 +1,26 @@
+package com.devsuperior.dscatalog.repositories;
+
+import java.time.Instant;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.devsuperior.dscatalog.entities.RevokedToken;
+
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, String>{
+	
+	// A plain INSERT, not save(): a second revocation of the same token must fail on the primary key
+	@Modifying
+	@Transactional
+	@Query(nativeQuery = true, value = "INSERT INTO tb_revoked_token (id, expires_at) VALUES (:id, :expiresAt)")
+	void insert(String id, Instant expiresAt);
+	
+	@Modifying
+	@Transactional
+	@Query("DELETE FROM RevokedToken obj WHERE obj.expiresAt < :now")
+	int deleteExpired(Instant now);
+}
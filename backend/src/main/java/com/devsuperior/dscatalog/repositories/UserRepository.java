@@ -1,7 +1,18 @@
 package com.devsuperior.dscatalog.repositories;
 
+import java.util.List;
+import java.util.Optional;
+
+import javax.persistence.QueryHint;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.devsuperior.dscatalog.entities.User;
 
@@ -9,4 +20,32 @@ import com.devsuperior.dscatalog.entities.User;
 public interface UserRepository extends JpaRepository<User, Long>{
 	
 	User findByEmail(String email);
+	
+	// E-mails are stored normalised, so the unique index on email serves this lookup
+	@Query("SELECT obj.id FROM User obj WHERE obj.email = :email")
+	Optional<Long> findIdByEmail(String email);
+	
+	// First phase of a paged listing: only ids, so the page limit applies to users and not to user-role rows
+	@Query("SELECT obj.id FROM User obj")
+	Page<Long> findIds(Pageable pageable);
+	
+	@Query("SELECT DISTINCT obj FROM User obj LEFT JOIN FETCH obj.roles WHERE obj.id IN :ids")
+	@QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_PASS_DISTINCT_THROUGH, value = "false"))
+	List<User> findWithRolesByIdIn(List<Long> ids);
+	
+	@Query("SELECT obj.email FROM User obj")
+	List<String> findAllEmails();
+	
+	// Rows written before e-mails were normalised; must match UserEmailFilter.normalize
+	@Modifying(clearAutomatically = true)
+	@Transactional
+	@Query("UPDATE User obj SET obj.email = LOWER(TRIM(obj.email)) WHERE obj.email <> LOWER(TRIM(obj.email))")
+	int normalizeEmails();
+	
+	@Query("SELECT LOWER(TRIM(obj.email)) FROM User obj GROUP BY LOWER(TRIM(obj.email)) HAVING COUNT(obj) > 1")
+	List<String> findEmailsDifferingOnlyInCase();
+	
+	// Cost digits of a $2a$NN$... hash
+	@Query("SELECT SUBSTRING(obj.password, 5, 2), COUNT(obj) FROM User obj GROUP BY SUBSTRING(obj.password, 5, 2)")
+	List<Object[]> countByPasswordCost();
 }
@@ -0,0 +1,19 @@
+package com.devsuperior.dscatalog.services;
+
+import java.util.Locale;
+
+import com.devsuperior.dscatalog.services.exceptions.BadRequestException;
+
+public enum CategoryMatch {
+	
+	ANY, ALL;
+	
+	public static CategoryMatch of(String value) {
+		try {
+			return valueOf(value.trim().toUpperCase(Locale.ROOT));
+		}
+		catch (IllegalArgumentException e) {
+			throw new BadRequestException("Unsupported category match " + value);
+		}
+	}
+}
@@ -1,18 +1,25 @@
 package com.devsuperior.dscatalog.services;
 
 
-import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
 
+import javax.annotation.PostConstruct;
 import javax.persistence.EntityNotFoundException;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.devsuperior.dscatalog.components.CountEstimator;
+import com.devsuperior.dscatalog.config.CacheConfig;
 import com.devsuperior.dscatalog.dto.CategoryDTO;
 import com.devsuperior.dscatalog.entities.Category;
 import com.devsuperior.dscatalog.repositories.CategoryRepository;
@@ -26,17 +33,41 @@ public class CategoryService {
 	@Autowired
 	private CategoryRepository categoryRepository;
 	
-	@Transactional(readOnly = true)
+	@Autowired
+	private CountEstimator countEstimator;
+	
+	private final AtomicReference<CategorySnapshot> snapshot = new AtomicReference<>(CategorySnapshot.EMPTY);
+	
+	@PostConstruct
+	public void load() {
+		snapshot.set(CategorySnapshot.of(categoryRepository.findAll()));
+	}
+	
+	public CategorySnapshot getSnapshot() {
+		return snapshot.get();
+	}
+	
 	public Page<CategoryDTO> findAllPaged(Pageable pageable) {
-		Page<Category> list = categoryRepository.findAll(pageable);
-		return list.map(x -> new CategoryDTO(x));
+		return snapshot.get().page(pageable);
+	}
+	
+	public Slice<CategoryDTO> findAllSliced(Pageable pageable) {
+		Page<CategoryDTO> page = snapshot.get().page(pageable);
+		return new SliceImpl<>(page.getContent(), pageable, page.hasNext());
+	}
+	
+	public Page<CategoryDTO> findAllEstimated(Pageable pageable) {
+		Page<CategoryDTO> page = snapshot.get().page(pageable);
+		long total = countEstimator.estimate("categories", categoryRepository::count);
+		return new PageImpl<>(page.getContent(), pageable, total);
 	}
 	
-	@Transactional(readOnly = true)
 	public CategoryDTO findById(Long id) {
-		Optional<Category> optional = categoryRepository.findById(id);
-		Category category = optional.orElseThrow(() -> new ControllerNotFoundException("Entity not found!"));
-		return new CategoryDTO(category);
+		CategoryDTO categoryDTO = snapshot.get().get(id);
+		if (categoryDTO == null) {
+			throw new ControllerNotFoundException("Entity not found!");
+		}
+		return categoryDTO;
 	}
 	
 	@Transactional
@@ -44,16 +75,21 @@ public class CategoryService {
 		Category category = new Category();
 		category.setName(categoryDTO.getName());
 		category = categoryRepository.save(category);
-		return new CategoryDTO(category);
+		CategoryDTO result = new CategoryDTO(category);
+		TransactionHooks.afterCommit(() -> snapshot.updateAndGet(x -> x.with(result)));
+		return result;
 	}
 
+	@CacheEvict(cacheNames = CacheConfig.PRODUCT_BY_ID, allEntries = true)
 	@Transactional
 	public CategoryDTO update(Long id, CategoryDTO categoryDTO) {
 		try {
 			Category category = categoryRepository.getOne(id);
 			category.setName(categoryDTO.getName());
-			category = categoryRepository.save(category);
-			return new CategoryDTO(category);
+			category = categoryRepository.saveAndFlush(category);
+			CategoryDTO result = new CategoryDTO(category);
+			TransactionHooks.afterCommit(() -> snapshot.updateAndGet(x -> x.with(result)));
+			return result;
 		}
 		catch (EntityNotFoundException e) {
 			throw new ControllerNotFoundException("Id not found " + id);
@@ -63,6 +99,7 @@ public class CategoryService {
 	public void delete(Long id) {
 		try {
 			categoryRepository.deleteById(id);
+			snapshot.updateAndGet(x -> x.without(id));
 		}
 		catch (EmptyResultDataAccessException e) {
 			throw new ControllerNotFoundException("Id not found " + id);
@@ -0,0 +1,119 @@
+package com.devsuperior.dscatalog.services;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import com.devsuperior.dscatalog.dto.CategoryDTO;
+import com.devsuperior.dscatalog.entities.Category;
+import com.devsuperior.dscatalog.services.exceptions.BadRequestException;
+
+/**
+ * Immutable copy of tb_category. Every write produces a new snapshot with the
+ * next version; readers keep using whichever snapshot they already hold. The
+ * entity tag is derived from the row versions, so it survives restarts and is
+ * the same on every instance.
+ * <p>
+ * Writes are applied after their transaction commits, which is not always in
+ * commit order: a row older than the one already held, or one whose id was
+ * deleted, is ignored.
+ */
+public final class CategorySnapshot {
+	
+	public static final CategorySnapshot EMPTY = new CategorySnapshot(0L, Collections.emptyMap(), Collections.emptySet());
+	
+	private static final Map<String, Comparator<CategoryDTO>> COMPARATORS = Map.of(
+			"id", Comparator.comparing(CategoryDTO::getId),
+			"name", Comparator.comparing(CategoryDTO::getName, Comparator.nullsFirst(Comparator.naturalOrder())));
+	
+	private final long version;
+	private final Map<Long, CategoryDTO> categories;
+	private final String eTag;
+	// Ids are never reused, so deleted ones are kept to reject late writes to them
+	private final Set<Long> removed;
+	
+	private CategorySnapshot(long version, Map<Long, CategoryDTO> categories, Set<Long> removed) {
+		this.version = version;
+		this.categories = Collections.unmodifiableMap(categories);
+		this.eTag = ETags.of(categories.values());
+		this.removed = Collections.unmodifiableSet(removed);
+	}
+	
+	public static CategorySnapshot of(List<Category> list) {
+		Map<Long, CategoryDTO> categories = new LinkedHashMap<>();
+		list.stream().sorted(Comparator.comparing(Category::getId)).forEach(x -> categories.put(x.getId(), new CategoryDTO(x)));
+		return new CategorySnapshot(1L, categories, Collections.emptySet());
+	}
+	
+	public CategorySnapshot with(CategoryDTO category) {
+		CategoryDTO current = categories.get(category.getId());
+		if (removed.contains(category.getId()) || (current != null && !isNewer(category, current))) {
+			return this;
+		}
+		Map<Long, CategoryDTO> copy = new LinkedHashMap<>(categories);
+		copy.put(category.getId(), category);
+		return new CategorySnapshot(version + 1, copy, removed);
+	}
+	
+	public CategorySnapshot without(Long id) {
+		Map<Long, CategoryDTO> copy = new LinkedHashMap<>(categories);
+		copy.remove(id);
+		Set<Long> removedCopy = new HashSet<>(removed);
+		removedCopy.add(id);
+		return new CategorySnapshot(version + 1, copy, removedCopy);
+	}
+	
+	public CategoryDTO get(Long id) {
+		return categories.get(id);
+	}
+	
+	public boolean contains(Long id) {
+		return categories.containsKey(id);
+	}
+	
+	public Page<CategoryDTO> page(Pageable pageable) {
+		List<CategoryDTO> list = new ArrayList<>(categories.values());
+		if (pageable.getSort().isSorted()) {
+			list.sort(comparator(pageable.getSort()));
+		}
+		int from = (int) Math.min(pageable.getOffset(), list.size());
+		int to = Math.min(from + pageable.getPageSize(), list.size());
+		return new PageImpl<>(list.subList(from, to), pageable, list.size());
+	}
+
+	public long getVersion() {
+		return version;
+	}
+	
+	public String getETag() {
+		return eTag;
+	}
+	
+	private static boolean isNewer(CategoryDTO category, CategoryDTO current) {
+		return category.getVersion() == null || current.getVersion() == null
+				|| category.getVersion() > current.getVersion();
+	}
+	
+	private static Comparator<CategoryDTO> comparator(Sort sort) {
+		Comparator<CategoryDTO> result = null;
+		for (Sort.Order order : sort) {
+			Comparator<CategoryDTO> comparator = COMPARATORS.get(order.getProperty());
+			if (comparator == null) {
+				throw new BadRequestException("Unsupported sort " + order.getProperty());
+			}
+			comparator = order.isAscending() ? comparator : comparator.reversed();
+			result = (result == null) ? comparator : result.thenComparing(comparator);
+		}
+		return result;
+	}
+}
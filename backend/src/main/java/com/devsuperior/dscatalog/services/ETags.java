@@ -0,0 +1,52 @@
+package com.devsuperior.dscatalog.services;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.devsuperior.dscatalog.dto.CategoryDTO;
+import com.devsuperior.dscatalog.dto.ProductDTO;
+
+/**
+ * Strong entity tags built from row versions, so a conditional GET can be
+ * answered without loading or serializing the representation.
+ */
+public final class ETags {
+	
+	private ETags() {
+	}
+	
+	public static String of(CategoryDTO category) {
+		return "\"" + category.getVersion() + "\"";
+	}
+	
+	public static String of(Collection<CategoryDTO> categories) {
+		long hash = 17;
+		for (CategoryDTO category : sortedById(categories)) {
+			hash = 31 * hash + category.getId();
+			hash = 31 * hash + (category.getVersion() == null ? 0 : category.getVersion());
+		}
+		return "\"" + categories.size() + "-" + Long.toHexString(hash) + "\"";
+	}
+	
+	public static String of(ProductDTO product) {
+		Map<Long, Long> categoryVersions = new TreeMap<>();
+		product.getCategories().forEach(x -> categoryVersions.put(x.getId(), x.getVersion()));
+		return of(product.getVersion(), categoryVersions);
+	}
+	
+	// A product body embeds its category names, so their versions are part of the tag
+	public static String of(Long productVersion, Map<Long, Long> categoryVersions) {
+		StringBuilder tag = new StringBuilder("\"").append(productVersion);
+		new TreeMap<>(categoryVersions).forEach((id, version) -> tag.append('-').append(id).append('.').append(version));
+		return tag.append('"').toString();
+	}
+	
+	private static CategoryDTO[] sortedById(Collection<CategoryDTO> categories) {
+		CategoryDTO[] array = categories.toArray(new CategoryDTO[0]);
+		Arrays.sort(array, Comparator.comparing(CategoryDTO::getId));
+		return array;
+	}
+}
@@ -0,0 +1,32 @@
+package com.devsuperior.dscatalog.services;
+
+import java.util.Locale;
+
+import org.springframework.http.MediaType;
+
+import com.devsuperior.dscatalog.services.exceptions.BadRequestException;
+
+public enum ExportFormat {
+	
+	NDJSON(new MediaType("application", "x-ndjson")),
+	CSV(new MediaType("text", "csv"));
+	
+	private final MediaType mediaType;
+	
+	private ExportFormat(MediaType mediaType) {
+		this.mediaType = mediaType;
+	}
+	
+	public MediaType getMediaType() {
+		return mediaType;
+	}
+	
+	public static ExportFormat of(String value) {
+		try {
+			return valueOf(value.trim().toUpperCase(Locale.ROOT));
+		}
+		catch (IllegalArgumentException e) {
+			throw new BadRequestException("Unsupported export format " + value);
+		}
+	}
+}
@@ -0,0 +1,68 @@
+package com.devsuperior.dscatalog.services;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import com.devsuperior.dscatalog.entities.Product;
+import com.devsuperior.dscatalog.services.exceptions.BadRequestException;
+
+/**
+ * Opaque keyset position: the sort key and id of the last product of a page,
+ * encoded as url-safe base64 of "sort:id:name".
+ */
+public class ProductCursor {
+	
+	public static final String SORT_ID = "id";
+	public static final String SORT_NAME = "name";
+	
+	private final String sort;
+	private final Long lastId;
+	private final String lastName;
+	
+	private ProductCursor(String sort, Long lastId, String lastName) {
+		this.sort = sort;
+		this.lastId = lastId;
+		this.lastName = lastName;
+	}
+	
+	public static ProductCursor first(String sort) {
+		return new ProductCursor(sort, 0L, "");
+	}
+	
+	public static ProductCursor after(String sort, Product product) {
+		return new ProductCursor(sort, product.getId(), product.getName());
+	}
+	
+	public static ProductCursor decode(String sort, String value) {
+		if (value.isEmpty()) {
+			return first(sort);
+		}
+		try {
+			String[] parts = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8).split(":", 3);
+			if (parts.length != 3 || !parts[0].equals(sort)) {
+				throw new BadRequestException("Cursor does not match sort " + sort);
+			}
+			return new ProductCursor(sort, Long.parseLong(parts[1]), parts[2]);
+		}
+		catch (IllegalArgumentException e) {
+			throw new BadRequestException("Invalid cursor");
+		}
+	}
+	
+	public String encode() {
+		String value = sort + ":" + lastId + ":" + (SORT_NAME.equals(sort) ? lastName : "");
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+	}
+
+	public String getSort() {
+		return sort;
+	}
+
+	public Long getLastId() {
+		return lastId;
+	}
+
+	public String getLastName() {
+		return lastName;
+	}
+}
@@ -0,0 +1,108 @@
+package com.devsuperior.dscatalog.services;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.devsuperior.dscatalog.dto.CategoryDTO;
+import com.devsuperior.dscatalog.dto.ProductDTO;
+import com.devsuperior.dscatalog.repositories.ProductExportRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * Writes the catalog straight from the export cursor to the response. The
+ * output stream is flushed but left open for the servlet container.
+ */
+@Service
+public class ProductExportService {
+	
+	private static final String CSV_HEADER = "id,name,description,price,imgUrl,date,categoryIds,categoryNames";
+	
+	@Autowired
+	private ObjectMapper objectMapper;
+	
+	@Autowired
+	private ProductExportRepository productExportRepository;
+	
+	@Transactional(readOnly = true)
+	public void export(ExportFormat format, OutputStream out) throws IOException {
+		try {
+			if (format == ExportFormat.CSV) {
+				exportCsv(out);
+			}
+			else {
+				exportNdjson(out);
+			}
+		}
+		catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
+	
+	private void exportNdjson(OutputStream out) throws IOException {
+		ObjectWriter writer = objectMapper.writerFor(ProductDTO.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+		JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+		generator.setRootValueSeparator(null);
+		productExportRepository.forEach(product -> {
+			try {
+				writer.writeValue(generator, product);
+				generator.writeRaw('\n');
+			}
+			catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		});
+		generator.flush();
+	}
+	
+	private void exportCsv(OutputStream out) throws IOException {
+		Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+		writer.write(CSV_HEADER);
+		writer.write('\n');
+		productExportRepository.forEach(product -> {
+			try {
+				writer.write(csvLine(product));
+			}
+			catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		});
+		writer.flush();
+	}
+	
+	private static String csvLine(ProductDTO product) {
+		StringBuilder line = new StringBuilder();
+		line.append(product.getId()).append(',');
+		line.append(csv(product.getName())).append(',');
+		line.append(csv(product.getDescription())).append(',');
+		line.append(product.getPrice() == null ? "" : product.getPrice()).append(',');
+		line.append(csv(product.getImgUrl())).append(',');
+		line.append(product.getDate() == null ? "" : product.getDate()).append(',');
+		line.append(product.getCategories().stream().map(x -> String.valueOf(x.getId())).collect(Collectors.joining(";"))).append(',');
+		line.append(csv(product.getCategories().stream().map(CategoryDTO::getName).collect(Collectors.joining(";"))));
+		return line.append('\n').toString();
+	}
+	
+	// RFC 4180 quoting: only when needed, with embedded quotes doubled
+	private static String csv(String value) {
+		if (value == null) {
+			return "";
+		}
+		if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+			return value;
+		}
+		return "\"" + value.replace("\"", "\"\"") + "\"";
+	}
+}
@@ -0,0 +1,206 @@
+package com.devsuperior.dscatalog.services;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.devsuperior.dscatalog.components.CategoryBitmapIndex;
+import com.devsuperior.dscatalog.components.ProductNameIndex;
+import com.devsuperior.dscatalog.dto.CategoryDTO;
+import com.devsuperior.dscatalog.dto.ProductDTO;
+import com.devsuperior.dscatalog.dto.ProductImportResultDTO;
+import com.devsuperior.dscatalog.dto.ProductImportResultDTO.Status;
+import com.devsuperior.dscatalog.repositories.ProductBatchRepository;
+import com.devsuperior.dscatalog.services.exceptions.BadRequestException;
+import com.devsuperior.dscatalog.services.exceptions.ImportAbortedException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Streams a JSON array of products, validating each one and writing the valid
+ * ones in chunks. Every chunk commits on its own; a chunk the database
+ * rejects is retried one product at a time, so only the offending products
+ * are reported as failed. An element that does not bind to a product is
+ * reported as invalid; only broken JSON stops the import.
+ */
+@Service
+public class ProductImportService {
+	
+	@Autowired
+	private ObjectMapper objectMapper;
+	
+	@Autowired
+	private Validator validator;
+	
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+	
+	@Autowired
+	private ProductBatchRepository productBatchRepository;
+	
+	@Autowired
+	private CategoryService categoryService;
+	
+	@Autowired
+	private ProductNameIndex productNameIndex;
+	
+	@Autowired
+	private CategoryBitmapIndex categoryBitmapIndex;
+	
+	@Value("${catalog.import.chunk-size}")
+	private int chunkSize;
+	
+	public List<ProductImportResultDTO> importAll(InputStream body) throws IOException {
+		List<ProductImportResultDTO> results = new ArrayList<>();
+		List<ProductDTO> chunk = new ArrayList<>();
+		List<ProductImportResultDTO> chunkResults = new ArrayList<>();
+		
+		try (JsonParser parser = objectMapper.createParser(body)) {
+			if (parser.nextToken() != JsonToken.START_ARRAY) {
+				throw new BadRequestException("Expected a JSON array of products");
+			}
+			while (parser.nextToken() != JsonToken.END_ARRAY) {
+				JsonNode node = parser.readValueAsTree();
+				ProductImportResultDTO result = new ProductImportResultDTO(results.size());
+				results.add(result);
+				ProductDTO productDTO = convert(node, result);
+				if (productDTO != null && validate(productDTO, result)) {
+					chunk.add(productDTO);
+					chunkResults.add(result);
+				}
+				if (chunk.size() == chunkSize) {
+					write(chunk, chunkResults);
+				}
+			}
+		}
+		catch (JsonProcessingException e) {
+			write(chunk, chunkResults);
+			throw new ImportAbortedException("Malformed JSON after index " + (results.size() - 1)
+					+ ", earlier products were imported: " + e.getOriginalMessage(), results);
+		}
+		write(chunk, chunkResults);
+		return results;
+	}
+	
+	// A type mismatch only invalidates this element: the parser is already past it
+	private ProductDTO convert(JsonNode node, ProductImportResultDTO result) {
+		ProductDTO productDTO = null;
+		try {
+			productDTO = objectMapper.treeToValue(node, ProductDTO.class);
+			if (productDTO == null) {
+				result.addError("", "Expected a product object");
+			}
+		}
+		catch (JsonMappingException e) {
+			String fieldName = e.getPath().isEmpty() ? null : e.getPath().get(0).getFieldName();
+			result.addError(fieldName == null ? "" : fieldName, e.getOriginalMessage());
+		}
+		catch (JsonProcessingException e) {
+			result.addError("", e.getOriginalMessage());
+		}
+		if (!result.getErrors().isEmpty()) {
+			result.setStatus(Status.INVALID);
+			return null;
+		}
+		return productDTO;
+	}
+	
+	private boolean validate(ProductDTO productDTO, ProductImportResultDTO result) {
+		for (ConstraintViolation<ProductDTO> violation : validator.validate(productDTO)) {
+			result.addError(violation.getPropertyPath().toString(), violation.getMessage());
+		}
+		CategorySnapshot categories = categoryService.getSnapshot();
+		for (CategoryDTO categoryDTO : productDTO.getCategories()) {
+			if (categoryDTO.getId() == null || !categories.contains(categoryDTO.getId())) {
+				result.addError("categories", "Categoria inexistente " + categoryDTO.getId());
+			}
+		}
+		if (!result.getErrors().isEmpty()) {
+			result.setStatus(Status.INVALID);
+			return false;
+		}
+		return true;
+	}
+	
+	private void write(List<ProductDTO> chunk, List<ProductImportResultDTO> chunkResults) {
+		if (chunk.isEmpty()) {
+			return;
+		}
+		List<ProductDTO> products = new ArrayList<>(chunk);
+		try {
+			insert(products);
+			for (int i = 0; i < products.size(); i++) {
+				chunkResults.get(i).setId(products.get(i).getId());
+				chunkResults.get(i).setStatus(Status.CREATED);
+			}
+		}
+		catch (DataAccessException e) {
+			// The batch does not tell which row broke it, so the chunk is retried one product at a time
+			for (int i = 0; i < products.size(); i++) {
+				writeOne(products.get(i), chunkResults.get(i));
+			}
+		}
+		chunk.clear();
+		chunkResults.clear();
+	}
+	
+	private void writeOne(ProductDTO product, ProductImportResultDTO result) {
+		try {
+			insert(List.of(product));
+			result.setId(product.getId());
+			result.setStatus(Status.CREATED);
+		}
+		catch (DataAccessException e) {
+			result.setStatus(Status.FAILED);
+			result.addError("", reason(e));
+		}
+	}
+	
+	private void insert(List<ProductDTO> products) {
+		new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+			List<Long> ids = productBatchRepository.nextIds(products.size());
+			for (int i = 0; i < products.size(); i++) {
+				products.get(i).setId(ids.get(i));
+			}
+			productBatchRepository.insert(products);
+			TransactionHooks.afterCommit(() -> index(products));
+		});
+	}
+	
+	// The database's own message, without the statement some drivers append on later lines
+	private static String reason(DataAccessException e) {
+		String message = e.getMostSpecificCause().getMessage();
+		if (message == null) {
+			return "Integrity violation";
+		}
+		int end = message.indexOf('\n');
+		return (end < 0 ? message : message.substring(0, end)).trim();
+	}
+	
+	private void index(List<ProductDTO> products) {
+		Map<Long, List<Long>> categoryIds = new HashMap<>();
+		for (ProductDTO product : products) {
+			productNameIndex.put(product.getId(), product.getName());
+			categoryIds.put(product.getId(), product.getCategories().stream().map(CategoryDTO::getId).collect(Collectors.toList()));
+		}
+		categoryBitmapIndex.putAll(categoryIds);
+	}
+}
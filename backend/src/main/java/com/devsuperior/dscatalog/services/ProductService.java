@@ -1,47 +1,177 @@
 package com.devsuperior.dscatalog.services;
 
 
-import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
 
 import javax.persistence.EntityNotFoundException;
 
+import org.hibernate.Hibernate;
+import org.roaringbitmap.RoaringBitmap;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.devsuperior.dscatalog.components.CategoryBitmapIndex;
+import com.devsuperior.dscatalog.components.CountEstimator;
+import com.devsuperior.dscatalog.components.ProductNameIndex;
+import com.devsuperior.dscatalog.config.CacheConfig;
 import com.devsuperior.dscatalog.dto.CategoryDTO;
+import com.devsuperior.dscatalog.dto.CursorPageDTO;
+import com.devsuperior.dscatalog.dto.FacetDTO;
 import com.devsuperior.dscatalog.dto.ProductDTO;
 import com.devsuperior.dscatalog.entities.Category;
 import com.devsuperior.dscatalog.entities.Product;
 import com.devsuperior.dscatalog.repositories.CategoryRepository;
+import com.devsuperior.dscatalog.repositories.ProductFilter;
 import com.devsuperior.dscatalog.repositories.ProductRepository;
+import com.devsuperior.dscatalog.services.exceptions.BadRequestException;
 import com.devsuperior.dscatalog.services.exceptions.ControllerNotFoundException;
 import com.devsuperior.dscatalog.services.exceptions.DatabaseException;
 
+import io.micrometer.core.instrument.MeterRegistry;
+
 
 @Service
 public class ProductService {
 	
+	private static final String CATEGORY_ROWS_METRIC = "catalog.product.category.rows";
+	
 	@Autowired
 	private ProductRepository productRepository;
 	
 	@Autowired
 	private CategoryRepository categoryRepository;
 	
+	@Autowired
+	private CategoryService categoryService;
+	
+	@Autowired
+	private ProductNameIndex productNameIndex;
+	
+	@Autowired
+	private CategoryBitmapIndex categoryBitmapIndex;
+	
+	@Autowired
+	private CountEstimator countEstimator;
+	
+	@Autowired
+	private MeterRegistry meterRegistry;
+	
+	@Value("${catalog.search.max-candidates}")
+	private int maxCandidates;
+	
 	@Transactional(readOnly = true)
 	public Page<ProductDTO> findAllPaged(Long categoryId, String name, Pageable pageable) {
-		List<Category> categories = (categoryId == 0) ? null : Arrays.asList(categoryRepository.getOne(categoryId));
-		Page<Product> page = productRepository.find(categories, name, pageable);
-		productRepository.findProductsWithCategories(page.getContent());
-		return page.map(x -> new ProductDTO(x, x.getCategories()));
+		return findAllPaged(categoryIds(categoryId), CategoryMatch.ANY, name, pageable);
 	}
 	
+	@Transactional(readOnly = true)
+	public Page<ProductDTO> findAllPaged(List<Long> categoryIds, CategoryMatch match, String name, Pageable pageable) {
+		Candidates candidates = resolve(categoryIds, match, name);
+		if (candidates.ids.isEmpty()) {
+			return new PageImpl<>(new ArrayList<>(), pageable, 0L);
+		}
+		if (isAnsweredByIndexes(candidates)) {
+			return new PageImpl<>(findIndexed(candidates, categoryIds, match, pageable), pageable, candidates.ids.getLongCardinality());
+		}
+		ProductFilter filter = filter(candidates, categoryIds, match, name);
+		List<ProductDTO> content = productRepository.findProjected(filter, pageable);
+		return PageableExecutionUtils.getPage(content, pageable, () -> productRepository.countProjected(filter));
+	}
+	
+	@Transactional(readOnly = true)
+	public Slice<ProductDTO> findAllSliced(List<Long> categoryIds, CategoryMatch match, String name, Pageable pageable) {
+		Candidates candidates = resolve(categoryIds, match, name);
+		if (candidates.ids.isEmpty()) {
+			return new SliceImpl<>(new ArrayList<>(), pageable, false);
+		}
+		if (isAnsweredByIndexes(candidates)) {
+			boolean hasNext = pageable.getOffset() + pageable.getPageSize() < candidates.ids.getLongCardinality();
+			return new SliceImpl<>(findIndexed(candidates, categoryIds, match, pageable), pageable, hasNext);
+		}
+		return productRepository.findProjectedSlice(filter(candidates, categoryIds, match, name), pageable);
+	}
+	
+	// The total is the last one counted for this filter, recounted in the background once stale
+	@Transactional(readOnly = true)
+	public Page<ProductDTO> findAllEstimated(List<Long> categoryIds, CategoryMatch match, String name, Pageable pageable) {
+		Slice<ProductDTO> slice = findAllSliced(categoryIds, match, name, pageable);
+		String key = "products:" + match + ":" + new TreeSet<>(categoryIds) + ":" + name.toLowerCase(Locale.ROOT);
+		long total = countEstimator.estimate(key, () -> count(categoryIds, match, name));
+		return new PageImpl<>(slice.getContent(), pageable, total);
+	}
+	
+	// Counted from the same source as the listing's total, so the two always agree
+	@Transactional(readOnly = true)
+	public List<FacetDTO> findFacets(List<Long> categoryIds, CategoryMatch match, String name) {
+		Candidates candidates = resolve(categoryIds, match, name);
+		Map<Long, Long> counts;
+		if (candidates.ids.isEmpty()) {
+			counts = new TreeMap<>();
+		}
+		else if (isAnsweredByIndexes(candidates)) {
+			counts = categoryBitmapIndex.facets(candidates.ids);
+		}
+		else {
+			counts = productRepository.countByCategory(filter(candidates, categoryIds, match, name));
+		}
+		CategorySnapshot categories = categoryService.getSnapshot();
+		List<FacetDTO> facets = new ArrayList<>();
+		counts.forEach((categoryId, count) -> {
+			CategoryDTO category = categories.get(categoryId);
+			facets.add(new FacetDTO(categoryId, category == null ? null : category.getName(), count));
+		});
+		return facets;
+	}
+	
+	@Transactional(readOnly = true)
+	public CursorPageDTO<ProductDTO> findAllAfter(Long categoryId, String name, String sort, String after, int size) {
+		if (!ProductCursor.SORT_ID.equals(sort) && !ProductCursor.SORT_NAME.equals(sort)) {
+			throw new BadRequestException("Unsupported sort " + sort);
+		}
+		ProductCursor cursor = ProductCursor.decode(sort, after);
+		if (!isKnownCategory(categoryId)) {
+			return new CursorPageDTO<>(new ArrayList<>(), size, null);
+		}
+		Pageable limit = PageRequest.of(0, size + 1);
+		
+		List<Product> list = ProductCursor.SORT_NAME.equals(sort)
+				? productRepository.findAfterName(categoryId, name, cursor.getLastName(), cursor.getLastId(), limit)
+				: productRepository.findAfterId(categoryId, name, cursor.getLastId(), limit);
+		
+		String nextCursor = null;
+		if (list.size() > size) {
+			list = list.subList(0, size);
+			nextCursor = ProductCursor.after(sort, list.get(size - 1)).encode();
+		}
+		productRepository.findProductsWithCategories(list);
+		return new CursorPageDTO<>(list.stream().map(x -> new ProductDTO(x, x.getCategories())).collect(Collectors.toList()), size, nextCursor);
+	}
+	
+	@Cacheable(cacheNames = CacheConfig.PRODUCT_BY_ID, key = "#id", sync = true)
 	@Transactional(readOnly = true)
 	public ProductDTO findById(Long id) {
 		Optional<Product> optional = productRepository.findById(id);
@@ -49,20 +179,38 @@ public class ProductService {
 		return new ProductDTO(product, product.getCategories());
 	}
 	
+	@Transactional(readOnly = true)
+	public String findETag(Long id) {
+		List<Object[]> rows = productRepository.findVersions(id);
+		if (rows.isEmpty()) {
+			throw new ControllerNotFoundException("Entity not found!");
+		}
+		Map<Long, Long> categoryVersions = new TreeMap<>();
+		for (Object[] row : rows) {
+			if (row[1] != null) {
+				categoryVersions.put((Long) row[1], (Long) row[2]);
+			}
+		}
+		return ETags.of((Long) rows.get(0)[0], categoryVersions);
+	}
+	
 	@Transactional
 	public ProductDTO insert(ProductDTO productDTO) {
 		Product product = new Product();
 		copyDtoToEntity(productDTO, product);
 		product = productRepository.save(product);
+		updateIndexes(product);
 		return new ProductDTO(product);
 	}
 
+	@CacheEvict(cacheNames = CacheConfig.PRODUCT_BY_ID, key = "#id")
 	@Transactional
 	public ProductDTO update(Long id, ProductDTO productDTO) {
 		try {
 			Product product = productRepository.getOne(id);
 			copyDtoToEntity(productDTO, product);
 			product = productRepository.save(product);
+			updateIndexes(product);
 			return new ProductDTO(product);
 		}
 		catch (EntityNotFoundException e) {
@@ -70,9 +218,14 @@ public class ProductService {
 		}
 	}
 
+	@CacheEvict(cacheNames = CacheConfig.PRODUCT_BY_ID, key = "#id")
 	public void delete(Long id) {
 		try {
 			productRepository.deleteById(id);
+			TransactionHooks.afterCommit(() -> {
+				productNameIndex.remove(id);
+				categoryBitmapIndex.remove(id);
+			});
 		}
 		catch (EmptyResultDataAccessException e) {
 			throw new ControllerNotFoundException("Id not found " + id);
@@ -82,6 +235,98 @@ public class ProductService {
 		}
 	}
 	
+	private boolean isKnownCategory(Long categoryId) {
+		return categoryId == 0 || categoryService.getSnapshot().contains(categoryId);
+	}
+	
+	private static List<Long> categoryIds(Long categoryId) {
+		return (categoryId == 0) ? Collections.emptyList() : Collections.singletonList(categoryId);
+	}
+	
+	// Category membership comes from the bitmaps; the name index narrows it further when it can answer
+	private Candidates resolve(List<Long> categoryIds, CategoryMatch match, String name) {
+		RoaringBitmap ids = categoryBitmapIndex.filter(categoryIds, match == CategoryMatch.ALL);
+		if (name.isEmpty() || ids.isEmpty()) {
+			return new Candidates(ids, "");
+		}
+		Optional<Set<Long>> nameIds = productNameIndex.search(name);
+		if (nameIds.isEmpty()) {
+			return new Candidates(ids, name);
+		}
+		ids.and(RoaringBitmap.bitmapOf(nameIds.get().stream().mapToInt(Math::toIntExact).toArray()));
+		return new Candidates(ids, "");
+	}
+	
+	// Too many ids to hand to the database, and nothing left for it to check
+	private boolean isAnsweredByIndexes(Candidates candidates) {
+		return candidates.name.isEmpty() && candidates.ids.getLongCardinality() > maxCandidates;
+	}
+	
+	// Same total findAllPaged reports: free from the bitmaps when they answer alone, a count query otherwise
+	private long count(List<Long> categoryIds, CategoryMatch match, String name) {
+		Candidates candidates = resolve(categoryIds, match, name);
+		if (candidates.ids.isEmpty() || isAnsweredByIndexes(candidates)) {
+			return candidates.ids.getLongCardinality();
+		}
+		return productRepository.countProjected(filter(candidates, categoryIds, match, name));
+	}
+	
+	// A bounded id set is read by primary key; a larger one is left to the category and name predicates
+	private ProductFilter filter(Candidates candidates, List<Long> categoryIds, CategoryMatch match, String name) {
+		if (candidates.ids.getLongCardinality() <= maxCandidates) {
+			return ProductFilter.ofIds(toList(candidates.ids), candidates.name);
+		}
+		return ProductFilter.of(categoryIds, match == CategoryMatch.ALL, name);
+	}
+	
+	// The bitmap is ordered by id, so a page sorted by id alone is cut from it and only its rows are read; other sorts need the database to order the set
+	private List<ProductDTO> findIndexed(Candidates candidates, List<Long> categoryIds, CategoryMatch match, Pageable pageable) {
+		if (pageable.getSort().stream().anyMatch(x -> !x.getProperty().equals("id"))) {
+			return productRepository.findProjected(ProductFilter.of(categoryIds, match == CategoryMatch.ALL, ""), pageable);
+		}
+		boolean descending = pageable.getSort().stream().anyMatch(Sort.Order::isDescending);
+		long total = candidates.ids.getLongCardinality();
+		List<Long> ids = new ArrayList<>();
+		for (long i = pageable.getOffset(); i < Math.min(pageable.getOffset() + pageable.getPageSize(), total); i++) {
+			ids.add(Integer.toUnsignedLong(candidates.ids.select((int) (descending ? total - 1 - i : i))));
+		}
+		if (ids.isEmpty()) {
+			return new ArrayList<>();
+		}
+		return productRepository.findProjected(ProductFilter.ofIds(ids, ""), PageRequest.of(0, ids.size(), pageable.getSort()));
+	}
+	
+	private static List<Long> toList(RoaringBitmap bitmap) {
+		List<Long> ids = new ArrayList<>(bitmap.getCardinality());
+		bitmap.forEach((int id) -> ids.add(Integer.toUnsignedLong(id)));
+		return ids;
+	}
+	
+	private void updateIndexes(Product product) {
+		Long id = product.getId();
+		String name = product.getName();
+		List<Long> categoryIds = product.getCategories().stream().map(Category::getId).collect(Collectors.toList());
+		TransactionHooks.afterCommit(() -> {
+			productNameIndex.put(id, name);
+			categoryBitmapIndex.put(id, categoryIds);
+		});
+	}
+	
+	// Served from the second-level cache where possible; misses are fetched together thanks to @BatchSize
+	private List<Category> resolveCategories(Set<Long> ids) {
+		List<Category> categories = new ArrayList<>();
+		for (Long id : ids) {
+			categories.add(categoryRepository.getOne(id));
+		}
+		try {
+			categories.forEach(Hibernate::initialize);
+		}
+		catch (EntityNotFoundException e) {
+			throw new BadRequestException("Category not found");
+		}
+		return categories;
+	}
+	
 	private void copyDtoToEntity(ProductDTO productDTO, Product product) {
 		product.setName(productDTO.getName());
 		product.setDescription(productDTO.getDescription());
@@ -89,10 +334,37 @@ public class ProductService {
 		product.setImgUrl(productDTO.getImgUrl());
 		product.setDate(productDTO.getDate());
 		
-		product.getCategories().clear();
+		Set<Long> wanted = new HashSet<>();
 		for (CategoryDTO categoryDTO : productDTO.getCategories()) {
-			Category category = categoryRepository.getOne(categoryDTO.getId());
-			product.getCategories().add(category);
+			if (categoryDTO.getId() == null) {
+				throw new BadRequestException("Category id is required");
+			}
+			wanted.add(categoryDTO.getId());
+		}
+		
+		// Only the delta reaches tb_product_category; rows for kept categories are left alone
+		int before = product.getCategories().size();
+		product.getCategories().removeIf(x -> !wanted.contains(x.getId()));
+		int removed = before - product.getCategories().size();
+		product.getCategories().forEach(x -> wanted.remove(x.getId()));
+		if (!wanted.isEmpty()) {
+			product.getCategories().addAll(resolveCategories(wanted));
+		}
+		
+		meterRegistry.summary(CATEGORY_ROWS_METRIC, "operation", "insert").record(wanted.size());
+		meterRegistry.summary(CATEGORY_ROWS_METRIC, "operation", "delete").record(removed);
+		meterRegistry.summary(CATEGORY_ROWS_METRIC, "operation", "skip").record(before - removed);
+	}
+	
+	// Ids matching the filter according to the indexes, plus the part of the name they could not check
+	private static final class Candidates {
+		
+		private final RoaringBitmap ids;
+		private final String name;
+		
+		private Candidates(RoaringBitmap ids, String name) {
+			this.ids = ids;
+			this.name = name;
 		}
 	}
 }
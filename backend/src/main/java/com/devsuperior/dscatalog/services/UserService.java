@@ -1,6 +1,9 @@
 package com.devsuperior.dscatalog.services;
 
 
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 
 import javax.persistence.EntityNotFoundException;
@@ -8,17 +11,24 @@ import javax.persistence.EntityNotFoundException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.context.event.EventListener;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.devsuperior.dscatalog.components.PasswordCostMetrics;
+import com.devsuperior.dscatalog.components.UserEmailFilter;
+import com.devsuperior.dscatalog.config.CacheConfig;
 import com.devsuperior.dscatalog.dto.RoleDTO;
 import com.devsuperior.dscatalog.dto.UserDTO;
 import com.devsuperior.dscatalog.dto.UserInsertDTO;
@@ -29,10 +39,11 @@ import com.devsuperior.dscatalog.repositories.RoleRepository;
 import com.devsuperior.dscatalog.repositories.UserRepository;
 import com.devsuperior.dscatalog.services.exceptions.ControllerNotFoundException;
 import com.devsuperior.dscatalog.services.exceptions.DatabaseException;
+import com.devsuperior.dscatalog.services.exceptions.FieldValidationException;
 
 
 @Service
-public class UserService implements UserDetailsService {
+public class UserService implements UserDetailsService, UserDetailsPasswordService {
 	
 	private static Logger logger = LoggerFactory.getLogger(UserService.class);
 	
@@ -43,12 +54,25 @@ public class UserService implements UserDetailsService {
 	private RoleRepository roleRepository;
 	
 	@Autowired
-	private BCryptPasswordEncoder passwordEncoder;
+	private PasswordEncoder passwordEncoder;
+	
+	@Autowired
+	private PasswordCostMetrics passwordCostMetrics;
+	
+	@Autowired
+	private UserEmailFilter userEmailFilter;
 	
 	@Transactional(readOnly = true)
 	public Page<UserDTO> findAllPaged(Pageable pageable) {
-		Page<User> list = userRepository.findAll(pageable);
-		return list.map(x -> new UserDTO(x));
+		// Ids first, then the page's users and roles in one query instead of one roles query per user
+		Page<Long> ids = userRepository.findIds(pageable);
+		Map<Long, User> users = new HashMap<>();
+		if (ids.hasContent()) {
+			for (User user : userRepository.findWithRolesByIdIn(ids.getContent())) {
+				users.put(user.getId(), user);
+			}
+		}
+		return ids.map(id -> new UserDTO(users.get(id)));
 	}
 	
 	@Transactional(readOnly = true)
@@ -63,15 +87,30 @@ public class UserService implements UserDetailsService {
 		User user = new User();
 		copyDtoToEntity(userInsertDTO, user);
 		user.setPassword(passwordEncoder.encode(userInsertDTO.getPassword()));
-		user = userRepository.save(user);
+		userEmailFilter.put(user.getEmail());
+		try {
+			user = userRepository.save(user);
+		}
+		catch (DataIntegrityViolationException e) {
+			// The e-mail was taken after validation, maybe on another node: tb_user's only constraint is on it
+			throw new FieldValidationException("email", "E-mail já existe");
+		}
+		String encodedPassword = user.getPassword();
+		TransactionHooks.afterCommit(() -> passwordCostMetrics.added(encodedPassword));
 		return new UserDTO(user);
 	}
 
 	@Transactional
+	@CacheEvict(cacheNames = CacheConfig.USER_PRINCIPALS, allEntries = true)
 	public UserDTO update(Long id, UserUpdateDTO userUpdateDTO) {
 		try {
 			User user = userRepository.getOne(id);
+			String previousEmail = user.getEmail();
 			copyDtoToEntity(userUpdateDTO, user);
+			if (!Objects.equals(user.getEmail(), previousEmail)) {
+				userEmailFilter.put(user.getEmail());
+				TransactionHooks.afterCommit(userEmailFilter::markRemoved);
+			}
 			user = userRepository.save(user);
 			return new UserDTO(user);
 		}
@@ -80,9 +119,11 @@ public class UserService implements UserDetailsService {
 		}
 	}
 
+	@CacheEvict(cacheNames = CacheConfig.USER_PRINCIPALS, allEntries = true)
 	public void delete(Long id) {
 		try {
 			userRepository.deleteById(id);
+			userEmailFilter.markRemoved();
 		}
 		catch (EmptyResultDataAccessException e) {
 			throw new ControllerNotFoundException("Id not found " + id);
@@ -92,10 +133,25 @@ public class UserService implements UserDetailsService {
 		}
 	}
 	
+	// One-off migration of e-mails stored before they were normalised, a no-op once every row is
+	@EventListener(ApplicationReadyEvent.class)
+	public void normalizeStoredEmails() {
+		try {
+			int updated = userRepository.normalizeEmails();
+			if (updated > 0) {
+				logger.info("Normalised " + updated + " stored e-mails");
+			}
+		}
+		catch (DataIntegrityViolationException e) {
+			logger.error("E-mails differing only in case must be merged by hand: "
+					+ userRepository.findEmailsDifferingOnlyInCase());
+		}
+	}
+	
 	private void copyDtoToEntity(UserDTO userDTO, User user) {
 		user.setFirstName(userDTO.getFirstName());
 		user.setLastName(userDTO.getLastName());
-		user.setEmail(userDTO.getEmail());
+		user.setEmail(UserEmailFilter.normalize(userDTO.getEmail()));
 		
 		user.getRoles().clear();
 		for (RoleDTO roleDTO : userDTO.getRoles()) {
@@ -106,7 +162,7 @@ public class UserService implements UserDetailsService {
 
 	@Override
 	public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-		User user = userRepository.findByEmail(username);
+		User user = userRepository.findByEmail(UserEmailFilter.normalize(username));
 		
 		if (user == null) {
 			logger.error("User not found " + username);
@@ -115,4 +171,16 @@ public class UserService implements UserDetailsService {
 		logger.info("User found " + username);
 		return user;
 	}
+	
+	@Override
+	@Transactional
+	@CacheEvict(cacheNames = CacheConfig.USER_PRINCIPALS, key = "#user.username")
+	public UserDetails updatePassword(UserDetails user, String newPassword) {
+		User entity = userRepository.findByEmail(user.getUsername());
+		String previousPassword = entity.getPassword();
+		entity.setPassword(newPassword);
+		logger.info("Password rehashed " + user.getUsername());
+		TransactionHooks.afterCommit(() -> passwordCostMetrics.changed(previousPassword, newPassword));
+		return entity;
+	}
 }
@@ -0,0 +1,20 @@
+package com.devsuperior.dscatalog.services.exceptions;
+
+import java.util.List;
+
+import com.devsuperior.dscatalog.dto.ProductImportResultDTO;
+
+public class ImportAbortedException extends RuntimeException{
+	private static final long serialVersionUID = 1L;
+	
+	private final List<ProductImportResultDTO> results;
+
+	public ImportAbortedException(String msg, List<ProductImportResultDTO> results) {
+		super(msg);
+		this.results = results;
+	}
+
+	public List<ProductImportResultDTO> getResults() {
+		return results;
+	}
+}
@@ -8,9 +8,9 @@ import javax.validation.ConstraintValidatorContext;
 
 import org.springframework.beans.factory.annotation.Autowired;
 
+import com.devsuperior.dscatalog.components.UserEmailFilter;
 import com.devsuperior.dscatalog.controllers.exceptions.FieldMessage;
 import com.devsuperior.dscatalog.dto.UserInsertDTO;
-import com.devsuperior.dscatalog.entities.User;
 import com.devsuperior.dscatalog.repositories.UserRepository;
 
 public class UserInsertValidator implements ConstraintValidator<UserInsertValid, UserInsertDTO> {
@@ -18,6 +18,9 @@ public class UserInsertValidator implements ConstraintValidator<UserInsertValid,
 	@Autowired
 	private UserRepository userRepository;
 	
+	@Autowired
+	private UserEmailFilter userEmailFilter;
+	
 	@Override
 	public void initialize(UserInsertValid ann) {
 	}
@@ -27,9 +30,8 @@ public class UserInsertValidator implements ConstraintValidator<UserInsertValid,
 		
 		List<FieldMessage> list = new ArrayList<>();
 		
-		User user = userRepository.findByEmail(dto.getEmail());
-		
-		if (user != null) {
+		if (userEmailFilter.mightContain(dto.getEmail())
+				&& userRepository.findIdByEmail(UserEmailFilter.normalize(dto.getEmail())).isPresent()) {
 			list.add(new FieldMessage("email", "E-mail já existe"));
 		}
 		
@@ -3,6 +3,7 @@ package com.devsuperior.dscatalog.services.validation;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.validation.ConstraintValidator;
@@ -11,9 +12,9 @@ import javax.validation.ConstraintValidatorContext;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.servlet.HandlerMapping;
 
+import com.devsuperior.dscatalog.components.UserEmailFilter;
 import com.devsuperior.dscatalog.controllers.exceptions.FieldMessage;
 import com.devsuperior.dscatalog.dto.UserUpdateDTO;
-import com.devsuperior.dscatalog.entities.User;
 import com.devsuperior.dscatalog.repositories.UserRepository;
 
 public class UserUpdateValidator implements ConstraintValidator<UserUpdateValid, UserUpdateDTO> {
@@ -21,6 +22,9 @@ public class UserUpdateValidator implements ConstraintValidator<UserUpdateValid,
 	@Autowired
 	private UserRepository userRepository;
 	
+	@Autowired
+	private UserEmailFilter userEmailFilter;
+	
 	@Autowired
 	private HttpServletRequest httpServletRequest;
 	
@@ -38,9 +42,11 @@ public class UserUpdateValidator implements ConstraintValidator<UserUpdateValid,
 		
 		List<FieldMessage> list = new ArrayList<>();
 		
-		User user = userRepository.findByEmail(dto.getEmail());
+		Optional<Long> existingId = userEmailFilter.mightContain(dto.getEmail())
+				? userRepository.findIdByEmail(UserEmailFilter.normalize(dto.getEmail()))
+				: Optional.empty();
 		
-		if (user != null && userId != user.getId()) {
+		if (existingId.isPresent() && userId != existingId.get()) {
 			list.add(new FieldMessage("email", "E-mail já existe"));
 		}
 		
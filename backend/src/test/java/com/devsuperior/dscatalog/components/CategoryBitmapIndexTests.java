@@ -0,0 +1,78 @@
+package com.devsuperior.dscatalog.components;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.devsuperior.dscatalog.repositories.ProductRepository;
+
+public class CategoryBitmapIndexTests {
+	
+	private CategoryBitmapIndex index;
+	
+	@BeforeEach
+	void setUp() throws Exception {
+		index = new CategoryBitmapIndex();
+		index.put(1L, List.of(1L));
+		index.put(2L, List.of(1L, 2L));
+		index.put(3L, List.of(2L));
+	}
+	
+	@Test
+	public void filterShouldReturnUnionWhenMatchAny() {
+		RoaringBitmap result = index.filter(List.of(1L, 2L), false);
+		
+		Assertions.assertEquals(RoaringBitmap.bitmapOf(1, 2, 3), result);
+	}
+	
+	@Test
+	public void filterShouldReturnIntersectionWhenMatchAll() {
+		RoaringBitmap result = index.filter(List.of(1L, 2L), true);
+		
+		Assertions.assertEquals(RoaringBitmap.bitmapOf(2), result);
+	}
+	
+	@Test
+	public void filterShouldNotExposeIndexedBitmap() {
+		index.filter(List.of(1L), false).add(3);
+		
+		Assertions.assertEquals(RoaringBitmap.bitmapOf(1, 2), index.filter(List.of(1L), false));
+	}
+	
+	@Test
+	public void facetsShouldCountProductsPerCategoryWithinResult() {
+		Map<Long, Long> result = index.facets(RoaringBitmap.bitmapOf(2, 3));
+		
+		Assertions.assertEquals(Map.of(1L, 1L, 2L, 2L), result);
+	}
+	
+	@Test
+	public void putShouldMoveProductBetweenCategories() {
+		index.put(1L, List.of(2L));
+		
+		Assertions.assertEquals(RoaringBitmap.bitmapOf(2), index.filter(List.of(1L), false));
+		Assertions.assertEquals(RoaringBitmap.bitmapOf(1, 2, 3), index.filter(List.of(2L), false));
+	}
+	
+	@Test
+	public void loadShouldKeepWritesMadeWhileTableIsRead() {
+		ProductRepository productRepository = Mockito.mock(ProductRepository.class);
+		ReflectionTestUtils.setField(index, "productRepository", productRepository);
+		Mockito.when(productRepository.findAllCategoryLinks()).thenAnswer(invocation -> {
+			index.put(4L, List.of(1L));
+			index.remove(2L);
+			return List.<Object[]>of(new Object[] { 1L, 1L }, new Object[] { 2L, 1L }, new Object[] { 2L, 2L });
+		});
+		
+		index.load();
+		
+		Assertions.assertEquals(RoaringBitmap.bitmapOf(1, 4), index.filter(List.of(1L), false));
+		Assertions.assertEquals(RoaringBitmap.bitmapOf(), index.filter(List.of(2L), false));
+	}
+}
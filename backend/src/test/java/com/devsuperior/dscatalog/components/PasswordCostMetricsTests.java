@@ -0,0 +1,62 @@
+package com.devsuperior.dscatalog.components;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.devsuperior.dscatalog.repositories.UserRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(SpringExtension.class)
+public class PasswordCostMetricsTests {
+	
+	@InjectMocks
+	private PasswordCostMetrics metrics;
+	
+	@Mock
+	private UserRepository userRepository;
+	
+	private MeterRegistry meterRegistry;
+	
+	@BeforeEach
+	void setUp() throws Exception {
+		meterRegistry = new SimpleMeterRegistry();
+		ReflectionTestUtils.setField(metrics, "meterRegistry", meterRegistry);
+		Mockito.when(userRepository.countByPasswordCost()).thenReturn(List.<Object[]>of(new Object[] { "10", 2L }));
+		metrics.refresh();
+	}
+	
+	@Test
+	public void changedShouldMoveUserBetweenCostsWithoutQueryingWhenPasswordRehashed() {
+		metrics.changed("$2a$10$eACCYoNOHEqXve8aIWT8Nu3PkMXWBaOxJ9aORUYzfMQCbVBIhZ8tG",
+				"$2a$12$eACCYoNOHEqXve8aIWT8Nu3PkMXWBaOxJ9aORUYzfMQCbVBIhZ8tG");
+		
+		Assertions.assertEquals(1.0, cost("10"));
+		Assertions.assertEquals(1.0, cost("12"));
+		Mockito.verify(userRepository, Mockito.times(1)).countByPasswordCost();
+	}
+	
+	@Test
+	public void refreshShouldResetCostToZeroWhenNoLongerInTable() {
+		metrics.added("$2a$12$eACCYoNOHEqXve8aIWT8Nu3PkMXWBaOxJ9aORUYzfMQCbVBIhZ8tG");
+		
+		metrics.refresh();
+		
+		Assertions.assertEquals(2.0, cost("10"));
+		Assertions.assertEquals(0.0, cost("12"));
+	}
+	
+	private double cost(String cost) {
+		return meterRegistry.get("catalog.user.password.cost").tag("cost", cost).gauge().value();
+	}
+}
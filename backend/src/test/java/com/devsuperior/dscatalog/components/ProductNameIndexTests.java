@@ -0,0 +1,78 @@
+package com.devsuperior.dscatalog.components;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.devsuperior.dscatalog.repositories.ProductRepository;
+
+public class ProductNameIndexTests {
+	
+	private ProductNameIndex index;
+	
+	@BeforeEach
+	void setUp() throws Exception {
+		index = new ProductNameIndex();
+		ReflectionTestUtils.setField(index, "maxCandidates", 10);
+		index.put(1L, "PC Gamer");
+		index.put(2L, "PC Gamer Alfa");
+		index.put(3L, "Macbook Pro");
+	}
+	
+	@Test
+	public void searchShouldReturnIdsContainingTextIgnoringCase() {
+		Optional<Set<Long>> result = index.search("gAMER");
+		
+		Assertions.assertEquals(Set.of(1L, 2L), result.get());
+	}
+	
+	@Test
+	public void searchShouldReturnEmptyWhenTextShorterThanGram() {
+		Assertions.assertTrue(index.search("ok").isEmpty());
+	}
+	
+	@Test
+	public void searchShouldReturnEmptyWhenMatchesExceedMaxCandidates() {
+		ReflectionTestUtils.setField(index, "maxCandidates", 1);
+		
+		Assertions.assertTrue(index.search("gamer").isEmpty());
+		Assertions.assertEquals(Set.of(3L), index.search("macbook").get());
+	}
+	
+	@Test
+	public void putShouldReplacePreviousNameWhenIdExists() {
+		index.put(2L, "Smart TV");
+		
+		Assertions.assertEquals(Set.of(1L), index.search("gamer").get());
+		Assertions.assertEquals(Set.of(2L), index.search("smart").get());
+	}
+	
+	@Test
+	public void removeShouldDropIdFromResults() {
+		index.remove(1L);
+		
+		Assertions.assertEquals(Set.of(2L), index.search("gamer").get());
+	}
+	
+	@Test
+	public void loadShouldKeepWritesMadeWhileTableIsRead() {
+		ProductRepository productRepository = Mockito.mock(ProductRepository.class);
+		ReflectionTestUtils.setField(index, "productRepository", productRepository);
+		Mockito.when(productRepository.findAllNames()).thenAnswer(invocation -> {
+			index.put(4L, "Gamer Zeta");
+			index.remove(1L);
+			return List.<Object[]>of(new Object[] { 1L, "PC Gamer" }, new Object[] { 2L, "PC Gamer Alfa" });
+		});
+		
+		index.load();
+		
+		Assertions.assertEquals(Set.of(2L, 4L), index.search("gamer").get());
+		Assertions.assertEquals(Set.of(), index.search("macbook").get());
+	}
+}
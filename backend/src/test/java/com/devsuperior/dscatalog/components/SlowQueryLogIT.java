@@ -0,0 +1,40 @@
+package com.devsuperior.dscatalog.components;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import com.devsuperior.dscatalog.services.UserService;
+
+@SpringBootTest(properties = "catalog.sql.slow-query.sample-rate=1.0")
+@ExtendWith(OutputCaptureExtension.class)
+public class SlowQueryLogIT {
+
+	@Autowired
+	private UserService userService;
+
+	@Test
+	public void sampledStatementShouldBeLoggedWithRowsParamsAndCallerWhenSampleRateIsOne(CapturedOutput output)
+			throws Exception {
+		userService.findAllPaged(PageRequest.of(0, 5, Sort.by("firstName")));
+
+		String line = null;
+		for (int i = 0; i < 500 && line == null; i++) {
+			line = output.getOut().lines()
+					.filter(l -> l.contains("caller=UserService.findAllPaged") && l.contains("tb_user_role"))
+					.findFirst().orElse(null);
+			Thread.sleep(10);
+		}
+
+		Assertions.assertNotNull(line);
+		Assertions.assertTrue(line.contains("rows=3"));
+		Assertions.assertTrue(line.contains("params=[Long,Long]"));
+		Assertions.assertTrue(line.contains("success=true"));
+	}
+}
@@ -0,0 +1,55 @@
+package com.devsuperior.dscatalog.components;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.devsuperior.dscatalog.repositories.UserRepository;
+
+@ExtendWith(SpringExtension.class)
+public class UserEmailFilterTests {
+	
+	@InjectMocks
+	private UserEmailFilter filter;
+	
+	@Mock
+	private UserRepository userRepository;
+	
+	@BeforeEach
+	void setUp() throws Exception {
+		ReflectionTestUtils.setField(filter, "expectedInsertions", 1000);
+		ReflectionTestUtils.setField(filter, "fpp", 0.01);
+		Mockito.when(userRepository.count()).thenReturn(2L);
+		Mockito.when(userRepository.findAllEmails()).thenReturn(List.of("alex@gmail.com", "maria@gmail.com"));
+		filter.load();
+	}
+	
+	@Test
+	public void mightContainShouldReturnTrueForLoadedAndPutEmailsIgnoringCase() {
+		filter.put("Bob@Gmail.com");
+		
+		Assertions.assertTrue(filter.mightContain("MARIA@gmail.com"));
+		Assertions.assertTrue(filter.mightContain(" alex@gmail.com"));
+		Assertions.assertTrue(filter.mightContain("bob@gmail.com"));
+	}
+	
+	@Test
+	public void mightContainShouldRarelyReturnTrueWhenEmailIsAbsent() {
+		int falsePositives = 0;
+		for (int i = 0; i < 10_000; i++) {
+			if (filter.mightContain("user" + i + "@example.com")) {
+				falsePositives++;
+			}
+		}
+		
+		Assertions.assertTrue(falsePositives < 200, "false positives: " + falsePositives);
+	}
+}
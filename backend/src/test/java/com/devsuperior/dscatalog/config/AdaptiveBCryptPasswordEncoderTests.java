@@ -0,0 +1,26 @@
+package com.devsuperior.dscatalog.config;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+public class AdaptiveBCryptPasswordEncoderTests {
+	
+	@Test
+	public void upgradeEncodingShouldReturnTrueOnlyWhenHashCostIsLower() {
+		AdaptiveBCryptPasswordEncoder encoder = new AdaptiveBCryptPasswordEncoder(5);
+		
+		Assertions.assertTrue(encoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("123456")));
+		Assertions.assertFalse(encoder.upgradeEncoding(new BCryptPasswordEncoder(6).encode("123456")));
+		Assertions.assertFalse(encoder.upgradeEncoding(encoder.encode("123456")));
+		Assertions.assertFalse(encoder.upgradeEncoding("plain"));
+	}
+	
+	@Test
+	public void calibrateShouldReturnMinStrengthWhenTargetIsTooLow() {
+		AdaptiveBCryptPasswordEncoder encoder = AdaptiveBCryptPasswordEncoder.calibrate(0, 4, 6);
+		
+		Assertions.assertEquals(4, encoder.getStrength());
+		Assertions.assertEquals(10, AdaptiveBCryptPasswordEncoder.costOf("$2a$10$eACCYoNOHEqXve8aIWT8Nu3PkMXWBaOxJ9aORUYzfMQCbVBIhZ8tG"));
+	}
+}
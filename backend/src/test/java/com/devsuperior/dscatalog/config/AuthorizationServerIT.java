@@ -0,0 +1,121 @@
+package com.devsuperior.dscatalog.config;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.json.JacksonJsonParser;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class AuthorizationServerIT {
+	
+	@Value("${security.oauth2.client.client-id}")
+	private String clientId;
+
+	@Value("${security.oauth2.client.client-secret}")
+	private String clientSecret;
+	
+	private String username;
+	private String password;
+	
+	@Autowired
+	private MockMvc mockMvc;
+	
+	@Autowired
+	private CacheManager cacheManager;
+	
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+	
+	@BeforeEach
+	void setUp() throws Exception {
+		username = "maria@gmail.com";
+		password = "123456";
+		cacheManager.getCache(CacheConfig.USER_PRINCIPALS).clear();
+	}
+	
+	@Test
+	public void passwordGrantShouldQueryUserOnceWhenPrincipalNotCached() throws Exception {
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+		
+		ResultActions result = passwordGrant();
+		
+		result.andExpect(status().isOk());
+		result.andExpect(jsonPath("$.userFirstName").value("Maria"));
+		result.andExpect(jsonPath("$.userId").value(2));
+		Assertions.assertEquals(1L, statistics.getQueryExecutionCount());
+	}
+	
+	@Test
+	public void passwordGrantShouldNotQueryUserWhenPrincipalCached() throws Exception {
+		passwordGrant().andExpect(status().isOk());
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+		
+		ResultActions result = passwordGrant();
+		
+		result.andExpect(status().isOk());
+		Assertions.assertEquals(0L, statistics.getQueryExecutionCount());
+	}
+	
+	@Test
+	public void refreshGrantShouldIssueNewTokensWhenRefreshTokenValid() throws Exception {
+		String refreshToken = refreshTokenOf(passwordGrant());
+		
+		ResultActions result = refreshGrant(refreshToken);
+		
+		result.andExpect(status().isOk());
+		result.andExpect(jsonPath("$.access_token").exists());
+		result.andExpect(jsonPath("$.refresh_token").exists());
+		result.andExpect(jsonPath("$.userFirstName").value("Maria"));
+		Assertions.assertNotEquals(refreshToken, refreshTokenOf(result));
+	}
+	
+	@Test
+	public void refreshGrantShouldReturnBadRequestWhenRefreshTokenAlreadyUsed() throws Exception {
+		String refreshToken = refreshTokenOf(passwordGrant());
+		refreshGrant(refreshToken).andExpect(status().isOk());
+		
+		ResultActions result = refreshGrant(refreshToken);
+		
+		result.andExpect(status().isBadRequest());
+		result.andExpect(jsonPath("$.error").value("invalid_grant"));
+	}
+	
+	private ResultActions passwordGrant() throws Exception {
+		return mockMvc.perform(post("/oauth/token")
+				.param("grant_type", "password")
+				.param("username", username)
+				.param("password", password)
+				.with(httpBasic(clientId, clientSecret)));
+	}
+	
+	private ResultActions refreshGrant(String refreshToken) throws Exception {
+		return mockMvc.perform(post("/oauth/token")
+				.param("grant_type", "refresh_token")
+				.param("refresh_token", refreshToken)
+				.with(httpBasic(clientId, clientSecret)));
+	}
+	
+	private static String refreshTokenOf(ResultActions result) throws Exception {
+		String body = result.andReturn().getResponse().getContentAsString();
+		return new JacksonJsonParser().parseMap(body).get("refresh_token").toString();
+	}
+}
@@ -0,0 +1,91 @@
+package com.devsuperior.dscatalog.config;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.devsuperior.dscatalog.services.exceptions.ServiceOverloadedException;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class BoundedPasswordEncoderTests {
+	
+	private CountDownLatch started;
+	private CountDownLatch release;
+	private MeterRegistry meterRegistry;
+	private BoundedPasswordEncoder encoder;
+	private ExecutorService callers;
+	
+	@BeforeEach
+	void setUp() throws Exception {
+		started = new CountDownLatch(1);
+		release = new CountDownLatch(1);
+		meterRegistry = new SimpleMeterRegistry();
+		encoder = new BoundedPasswordEncoder(new BlockingEncoder(), 1, 1, 5, meterRegistry);
+		callers = Executors.newFixedThreadPool(2);
+	}
+	
+	@AfterEach
+	void tearDown() throws Exception {
+		release.countDown();
+		callers.shutdownNow();
+		encoder.shutdown();
+	}
+	
+	@Test
+	public void matchesShouldDelegateWhenPoolHasCapacity() {
+		release.countDown();
+		
+		Assertions.assertTrue(encoder.matches("123456", "{noop}123456"));
+		Assertions.assertEquals("{noop}123456", encoder.encode("123456"));
+	}
+	
+	@Test
+	public void matchesShouldThrowServiceOverloadedExceptionWhenQueueIsFull() throws Exception {
+		callers.submit(() -> encoder.matches("123456", "{noop}123456"));
+		Assertions.assertTrue(started.await(5, TimeUnit.SECONDS));
+		callers.submit(() -> encoder.matches("123456", "{noop}123456"));
+		awaitQueued();
+		
+		ServiceOverloadedException e = Assertions.assertThrows(ServiceOverloadedException.class, () -> {
+			encoder.matches("123456", "{noop}123456");
+		});
+		Assertions.assertEquals(5L, e.getRetryAfterSeconds());
+	}
+	
+	private void awaitQueued() throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (meterRegistry.get("executor.queued").tag("name", BoundedPasswordEncoder.EXECUTOR_NAME).gauge().value() < 1
+				&& System.nanoTime() < deadline) {
+			Thread.sleep(10);
+		}
+	}
+	
+	private class BlockingEncoder implements PasswordEncoder {
+		
+		@Override
+		public String encode(CharSequence rawPassword) {
+			return "{noop}" + rawPassword;
+		}
+		
+		@Override
+		public boolean matches(CharSequence rawPassword, String encodedPassword) {
+			started.countDown();
+			try {
+				release.await();
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return encode(rawPassword).equals(encodedPassword);
+		}
+	}
+}
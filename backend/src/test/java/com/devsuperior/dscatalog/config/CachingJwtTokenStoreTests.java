@@ -0,0 +1,76 @@
+package com.devsuperior.dscatalog.config;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.oauth2.common.DefaultOAuth2RefreshToken;
+import org.springframework.security.oauth2.common.exceptions.InvalidGrantException;
+import org.springframework.security.oauth2.common.exceptions.InvalidTokenException;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.token.store.JwtAccessTokenConverter;
+
+import com.devsuperior.dscatalog.repositories.RevokedTokenRepository;
+import com.devsuperior.dscatalog.tests.TokenFactory;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class CachingJwtTokenStoreTests {
+	
+	private JwtAccessTokenConverter converter;
+	private MeterRegistry meterRegistry;
+	private RevokedTokenRepository revokedTokenRepository;
+	private CachingJwtTokenStore tokenStore;
+	
+	@BeforeEach
+	void setUp() throws Exception {
+		converter = TokenFactory.createConverter();
+		meterRegistry = new SimpleMeterRegistry();
+		revokedTokenRepository = Mockito.mock(RevokedTokenRepository.class);
+		tokenStore = new CachingJwtTokenStore(converter, 100, revokedTokenRepository, meterRegistry);
+	}
+	
+	@Test
+	public void readAuthenticationShouldReturnFreshCopyFromCacheWhenTokenWasVerified() {
+		String token = TokenFactory.createEncodedToken(converter, "maria@gmail.com", 3600);
+		
+		OAuth2Authentication first = tokenStore.readAuthentication(tokenStore.readAccessToken(token));
+		OAuth2Authentication second = tokenStore.readAuthentication(tokenStore.readAccessToken(token));
+		
+		Assertions.assertNotSame(first, second);
+		Assertions.assertEquals("maria@gmail.com", second.getName());
+		Assertions.assertEquals(3.0, meterRegistry.get("cache.gets").tag("cache", CachingJwtTokenStore.CACHE_NAME)
+				.tag("result", "hit").functionCounter().count());
+	}
+	
+	@Test
+	public void readAccessTokenShouldThrowInvalidTokenExceptionWhenSignatureIsWrong() {
+		String token = TokenFactory.createEncodedToken(converter, "maria@gmail.com", 3600);
+		String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+		
+		Assertions.assertThrows(InvalidTokenException.class, () -> {
+			tokenStore.readAccessToken(tampered);
+		});
+	}
+	
+	@Test
+	public void readRefreshTokenShouldReturnNullWhenTokenRevokedInDatabase() {
+		String token = TokenFactory.createEncodedToken(converter, "maria@gmail.com", 3600);
+		Mockito.when(revokedTokenRepository.existsById(ArgumentMatchers.anyString())).thenReturn(true);
+		
+		Assertions.assertNull(tokenStore.readRefreshToken(token));
+	}
+	
+	@Test
+	public void removeRefreshTokenShouldThrowInvalidGrantExceptionWhenAlreadyRevoked() {
+		Mockito.doThrow(DataIntegrityViolationException.class).when(revokedTokenRepository)
+				.insert(ArgumentMatchers.anyString(), ArgumentMatchers.any());
+		
+		Assertions.assertThrows(InvalidGrantException.class, () -> {
+			tokenStore.removeRefreshToken(new DefaultOAuth2RefreshToken("token"));
+		});
+	}
+}
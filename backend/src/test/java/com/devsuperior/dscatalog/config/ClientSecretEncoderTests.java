@@ -0,0 +1,25 @@
+package com.devsuperior.dscatalog.config;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class ClientSecretEncoderTests {
+	
+	private final ClientSecretEncoder encoder = new ClientSecretEncoder();
+	
+	@Test
+	public void matchesShouldReturnTrueWhenSecretIsCorrect() {
+		String encoded = encoder.encode("myclientsecret");
+		
+		Assertions.assertTrue(encoder.matches("myclientsecret", encoded));
+	}
+	
+	@Test
+	public void matchesShouldReturnFalseWhenSecretIsWrongOrEncodingIsInvalid() {
+		String encoded = encoder.encode("myclientsecret");
+		
+		Assertions.assertFalse(encoder.matches("myclientsecreT", encoded));
+		Assertions.assertFalse(encoder.matches("myclientsecret", "not base64!"));
+		Assertions.assertFalse(encoder.matches("myclientsecret", null));
+	}
+}
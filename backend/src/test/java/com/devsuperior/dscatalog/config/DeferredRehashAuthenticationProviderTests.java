@@ -0,0 +1,51 @@
+package com.devsuperior.dscatalog.config;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.devsuperior.dscatalog.services.exceptions.ServiceOverloadedException;
+
+public class DeferredRehashAuthenticationProviderTests {
+	
+	private PasswordEncoder passwordEncoder;
+	private UserDetailsPasswordService userDetailsPasswordService;
+	private DeferredRehashAuthenticationProvider provider;
+	
+	@BeforeEach
+	void setUp() throws Exception {
+		passwordEncoder = Mockito.mock(PasswordEncoder.class);
+		userDetailsPasswordService = Mockito.mock(UserDetailsPasswordService.class);
+		UserDetailsService userDetailsService = Mockito.mock(UserDetailsService.class);
+		Mockito.when(userDetailsService.loadUserByUsername("maria@gmail.com")).thenReturn(
+				new User("maria@gmail.com", "old-hash", List.of(new SimpleGrantedAuthority("ROLE_OPERATOR"))));
+		Mockito.when(passwordEncoder.matches("123456", "old-hash")).thenReturn(true);
+		Mockito.when(passwordEncoder.upgradeEncoding("old-hash")).thenReturn(true);
+		
+		provider = new DeferredRehashAuthenticationProvider();
+		provider.setUserDetailsService(userDetailsService);
+		provider.setPasswordEncoder(passwordEncoder);
+		provider.setUserDetailsPasswordService(userDetailsPasswordService);
+	}
+	
+	@Test
+	public void authenticateShouldSucceedWithoutRehashWhenEncoderOverloaded() {
+		Mockito.when(passwordEncoder.encode("123456")).thenThrow(new ServiceOverloadedException("busy", 1));
+		
+		Authentication result = provider.authenticate(new UsernamePasswordAuthenticationToken("maria@gmail.com", "123456"));
+		
+		Assertions.assertTrue(result.isAuthenticated());
+		Assertions.assertEquals("ROLE_OPERATOR", result.getAuthorities().iterator().next().getAuthority());
+		Mockito.verifyNoInteractions(userDetailsPasswordService);
+	}
+}
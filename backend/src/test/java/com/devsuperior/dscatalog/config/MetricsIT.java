@@ -0,0 +1,60 @@
+package com.devsuperior.dscatalog.config;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.devsuperior.dscatalog.tests.TokenUtil;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureMetrics
+public class MetricsIT {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private TokenUtil tokenUtil;
+
+	@Test
+	public void prometheusShouldExposeRequestRepositoryPoolHibernateAndJvmMeters() throws Exception {
+		mockMvc.perform(get("/products?name=PC")).andExpect(status().isOk());
+		mockMvc.perform(get("/products?categoryId=3")).andExpect(status().isOk());
+
+		String accessToken = tokenUtil.obtainAccessToken(mockMvc, "maria@gmail.com", "123456");
+		String body = mockMvc.perform(get("/actuator/prometheus").header("Authorization", "Bearer " + accessToken))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+
+		Assertions.assertTrue(body.contains("filter=\"name\""));
+		Assertions.assertTrue(body.contains("filter=\"category\""));
+		Assertions.assertTrue(body.contains("handler=\"ProductController.findAll\""));
+		Assertions.assertTrue(body.contains("spring_data_repository_invocations_seconds_count"));
+		Assertions.assertTrue(body.contains("hikaricp_connections_active"));
+		Assertions.assertTrue(body.contains("hibernate_statements_total"));
+		Assertions.assertTrue(body.contains("jvm_gc_memory_allocated_bytes_total"));
+	}
+
+	@Test
+	public void prometheusShouldReturnUnauthorizedWhenNoToken() throws Exception {
+		mockMvc.perform(get("/actuator/prometheus")).andExpect(status().isUnauthorized());
+		mockMvc.perform(get("/actuator/metrics")).andExpect(status().isUnauthorized());
+		mockMvc.perform(get("/actuator/health")).andExpect(status().isOk());
+	}
+
+	@Test
+	public void prometheusShouldReturnForbiddenWhenUserIsNotAdmin() throws Exception {
+		String accessToken = tokenUtil.obtainAccessToken(mockMvc, "alex@gmail.com", "123456");
+
+		mockMvc.perform(get("/actuator/prometheus").header("Authorization", "Bearer " + accessToken))
+				.andExpect(status().isForbidden());
+	}
+}
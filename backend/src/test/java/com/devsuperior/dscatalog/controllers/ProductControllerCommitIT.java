@@ -0,0 +1,93 @@
+package com.devsuperior.dscatalog.controllers;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.json.JacksonJsonParser;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import com.devsuperior.dscatalog.components.StatementBudgetTracker;
+import com.devsuperior.dscatalog.dto.ProductDTO;
+import com.devsuperior.dscatalog.tests.Factory;
+import com.devsuperior.dscatalog.tests.TokenUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Writes that really commit inside the request, so the statement budgets see
+ * the flushed UPDATE and DELETE statements and the after-commit work.
+ * Not transactional: each test removes what it creates.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+public class ProductControllerCommitIT {
+	
+	private String username;
+	private String password;
+	
+	@Autowired
+	private MockMvc mockMvc;
+	
+	@Autowired
+	private ObjectMapper objectMapper;
+	
+	@Autowired
+	private TokenUtil tokenUtil;
+	
+	@Autowired
+	private StatementBudgetTracker statementBudgetTracker;
+	
+	@BeforeEach
+	void setUp() throws Exception {
+		username = "maria@gmail.com";
+		password = "123456";
+		statementBudgetTracker.drainViolations();
+	}
+	
+	@AfterEach
+	void checkStatementBudgets() {
+		List<String> violations = statementBudgetTracker.drainViolations();
+		Assertions.assertTrue(violations.isEmpty(), () -> String.join("\n", violations));
+	}
+	
+	@Test
+	public void insertUpdateDeleteShouldStayWithinStatementBudgetsWhenWritesCommit() throws Exception {
+		String accessToken = tokenUtil.obtainAccessToken(mockMvc, username, password);
+		ProductDTO productDTO = Factory.createProductDTO();
+		productDTO.setId(null);
+		
+		ResultActions inserted = mockMvc.perform(post("/products").header("Authorization", "Bearer " + accessToken)
+				.content(objectMapper.writeValueAsString(productDTO)).contentType(MediaType.APPLICATION_JSON)
+				.accept(MediaType.APPLICATION_JSON));
+		inserted.andExpect(status().isCreated());
+		Object id = new JacksonJsonParser().parseMap(inserted.andReturn().getResponse().getContentAsString()).get("id");
+		
+		productDTO.setName("Committed Phone");
+		mockMvc.perform(put("/products/{id}", id).header("Authorization", "Bearer " + accessToken)
+				.content(objectMapper.writeValueAsString(productDTO)).contentType(MediaType.APPLICATION_JSON)
+				.accept(MediaType.APPLICATION_JSON))
+			.andExpect(status().isOk());
+		mockMvc.perform(get("/products?name=committed").accept(MediaType.APPLICATION_JSON))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.totalElements").value(1));
+		
+		mockMvc.perform(delete("/products/{id}", id).header("Authorization", "Bearer " + accessToken))
+			.andExpect(status().isNoContent());
+		mockMvc.perform(get("/products/{id}", id).accept(MediaType.APPLICATION_JSON))
+			.andExpect(status().isNotFound());
+	}
+}
@@ -1,21 +1,33 @@
 package com.devsuperior.dscatalog.controllers;
 
+import static org.hamcrest.Matchers.containsStringIgnoringCase;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.json.JacksonJsonParser;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.devsuperior.dscatalog.components.StatementBudget;
+import com.devsuperior.dscatalog.components.StatementBudgetTracker;
 import com.devsuperior.dscatalog.dto.ProductDTO;
 import com.devsuperior.dscatalog.tests.Factory;
 import com.devsuperior.dscatalog.tests.TokenUtil;
@@ -40,6 +52,9 @@ public class ProductControllerIT {
 	
 	@Autowired
 	private TokenUtil tokenUtil;
+	
+	@Autowired
+	private StatementBudgetTracker statementBudgetTracker;
 
 	@BeforeEach
 	void setUp() throws Exception {
@@ -48,6 +63,13 @@ public class ProductControllerIT {
 		countTotalProducts = 25L;
 		username = "maria@gmail.com";
 		password = "123456";
+		statementBudgetTracker.drainViolations();
+	}
+	
+	@AfterEach
+	void checkStatementBudgets() {
+		List<String> violations = statementBudgetTracker.drainViolations();
+		Assertions.assertTrue(violations.isEmpty(), () -> String.join("\n", violations));
 	}
 	
 	@Test
@@ -62,6 +84,257 @@ public class ProductControllerIT {
 		result.andExpect(jsonPath("$.content[2].name").value("PC Gamer Alfa"));
 	}
 	
+	@Test
+	public void findAllShouldReturnSliceWithoutTotalWhenCountIsNone() throws Exception {
+		ResultActions result = mockMvc.perform(get("/products?page=0&size=12&count=none").accept(MediaType.APPLICATION_JSON));
+		
+		result.andExpect(status().isOk());
+		result.andExpect(jsonPath("$.totalElements").doesNotExist());
+		result.andExpect(jsonPath("$.content.length()").value(12));
+		result.andExpect(jsonPath("$.last").value(false));
+	}
+	
+	@Test
+	public void findAllShouldReturnCachedTotalWithoutCountWhenCountIsEstimate() throws Exception {
+		mockMvc.perform(get("/products?page=0&size=12&count=estimate").accept(MediaType.APPLICATION_JSON))
+			.andExpect(status().isOk());
+		
+		StatementBudgetTracker.Scope scope = statementBudgetTracker.open("warm estimate", StatementBudget.UNLIMITED);
+		ResultActions result;
+		try {
+			result = mockMvc.perform(get("/products?page=0&size=12&count=estimate").accept(MediaType.APPLICATION_JSON));
+		}
+		finally {
+			statementBudgetTracker.close(scope);
+		}
+		
+		result.andExpect(status().isOk());
+		result.andExpect(jsonPath("$.totalElements").value(countTotalProducts));
+		Assertions.assertFalse(scope.getStatements().isEmpty());
+		Assertions.assertTrue(scope.getStatements().stream().noneMatch(x -> x.toLowerCase().contains("count(")), () -> String.join("\n", scope.getStatements()));
+	}
+	
+	@Test
+	public void findAllShouldReturnBadRequestWhenCountModeIsUnknown() throws Exception {
+		ResultActions result = mockMvc.perform(get("/products?count=maybe").accept(MediaType.APPLICATION_JSON));
+		
+		result.andExpect(status().isBadRequest());
+	}
+	
+	@Test
+	public void findAllShouldReturnProductsInEveryCategoryWhenMatchIsAll() throws Exception {
+		ResultActions result = mockMvc.perform(get("/products?categoryIds=1,3&match=all").accept(MediaType.APPLICATION_JSON));
+		
+		result.andExpect(status().isOk());
+		result.andExpect(jsonPath("$.totalElements").value(1L));
+		result.andExpect(jsonPath("$.content[0].id").value(2L));
+	}
+	
+	@Test
+	public void findAllShouldReturnFacetCountsWhenFacetsIsTrue() throws Exception {
+		ResultActions result = mockMvc.perform(get("/products?categoryIds=1,3&facets=true").accept(MediaType.APPLICATION_JSON));
+		
+		result.andExpect(status().isOk());
+		result.andExpect(jsonPath("$.totalElements").value(23L));
+		result.andExpect(jsonPath("$.facets.length()").value(2));
+		result.andExpect(jsonPath("$.facets[0].categoryId").value(1L));
+		result.andExpect(jsonPath("$.facets[0].count").value(1L));
+		result.andExpect(jsonPath("$.facets[1].categoryId").value(3L));
+		result.andExpect(jsonPath("$.facets[1].count").value(23L));
+	}
+	
+	@Test
+	public void findAllShouldCountFacetsInDatabaseWhenNameIsShorterThanGram() throws Exception {
+		ResultActions result = mockMvc.perform(get("/products?name=ok&facets=true").accept(MediaType.APPLICATION_JSON));
+		
+		result.andExpect(status().isOk());
+		result.andExpect(jsonPath("$.totalElements").value(1L));
+		result.andExpect(jsonPath("$.facets.length()").value(1));
+		result.andExpect(jsonPath("$.facets[0].categoryId").value(3L));
+		result.andExpect(jsonPath("$.facets[0].count").value(1L));
+	}
+	
+	@Test
+	public void findAllAfterShouldReturnFirstPageAndNextCursorWhenAfterIsEmpty() throws Exception {
+		ResultActions result = mockMvc.perform(get("/products?after=&size=12&sort=name").accept(MediaType.APPLICATION_JSON));
+		
+		result.andExpect(status().isOk());
+		result.andExpect(jsonPath("$.totalElements").doesNotExist());
+		result.andExpect(jsonPath("$.content.length()").value(12));
+		result.andExpect(jsonPath("$.content[0].name").value("Macbook Pro"));
+		result.andExpect(jsonPath("$.content[1].name").value("PC Gamer"));
+		result.andExpect(jsonPath("$.nextCursor").exists());
+	}
+	
+	@Test
+	public void findAllAfterShouldWalkEveryProductOnceWhenFollowingCursor() throws Exception {
+		JacksonJsonParser jsonParser = new JacksonJsonParser();
+		String cursor = "";
+		long count = 0L;
+		
+		while (cursor != null) {
+			String body = mockMvc.perform(get("/products").param("after", cursor).param("size", "10").accept(MediaType.APPLICATION_JSON))
+					.andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+			Map<String, Object> page = jsonParser.parseMap(body);
+			count += ((List<?>) page.get("content")).size();
+			cursor = (String) page.get("nextCursor");
+		}
+		
+		Assertions.assertEquals(countTotalProducts, count);
+	}
+	
+	@Test
+	public void findAllAfterShouldReturnBadRequestWhenCursorIsInvalid() throws Exception {
+		ResultActions result = mockMvc.perform(get("/products?after=not-a-cursor").accept(MediaType.APPLICATION_JSON));
+		
+		result.andExpect(status().isBadRequest());
+	}
+	
+	@Test
+	public void findByIdShouldReturnNotModifiedWhenIfNoneMatchEqualsETag() throws Exception {
+		String eTag = mockMvc.perform(get("/products/{id}", existingId).accept(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk()).andReturn().getResponse().getHeader("ETag");
+		
+		ResultActions result = mockMvc.perform(get("/products/{id}", existingId).header("If-None-Match", eTag).accept(MediaType.APPLICATION_JSON));
+		
+		result.andExpect(status().isNotModified());
+		result.andExpect(MockMvcResultMatchers.header().string("ETag", eTag));
+		result.andExpect(MockMvcResultMatchers.content().string(""));
+	}
+	
+	@Test
+	public void findByIdShouldReturnProductWhenIfNoneMatchIsStale() throws Exception {
+		ResultActions result = mockMvc.perform(get("/products/{id}", existingId).header("If-None-Match", "\"stale\"").accept(MediaType.APPLICATION_JSON));
+		
+		result.andExpect(status().isOk());
+		result.andExpect(MockMvcResultMatchers.header().exists("ETag"));
+		result.andExpect(jsonPath("$.name").exists());
+		result.andExpect(jsonPath("$.version").doesNotExist());
+	}
+	
+	@Test
+	public void insertBatchShouldReturnResultPerItemAndPersistValidProducts() throws Exception {
+		String accessToken = tokenUtil.obtainAccessToken(mockMvc, username, password);
+		ProductDTO valid = Factory.createProductDTO();
+		ProductDTO invalid = Factory.createProductDTO();
+		invalid.setName("");
+		ProductDTO unknownCategory = Factory.createProductDTO();
+		unknownCategory.getCategories().get(0).setId(nonExistingId);
+		String jsonBody = objectMapper.writeValueAsString(List.of(valid, invalid, unknownCategory));
+		
+		ResultActions result = mockMvc.perform(post("/products/batch").header("Authorization", "Bearer " + accessToken)
+				.content(jsonBody).contentType(MediaType.APPLICATION_JSON).accept(MediaType.APPLICATION_JSON));
+		
+		result.andExpect(status().isOk());
+		result.andExpect(jsonPath("$.length()").value(3));
+		result.andExpect(jsonPath("$[0].status").value("CREATED"));
+		result.andExpect(jsonPath("$[0].id").exists());
+		result.andExpect(jsonPath("$[1].status").value("INVALID"));
+		result.andExpect(jsonPath("$[1].errors[0].fieldName").value("name"));
+		result.andExpect(jsonPath("$[2].status").value("INVALID"));
+		result.andExpect(jsonPath("$[2].errors[0].fieldName").value("categories"));
+		
+		Object id = new JacksonJsonParser().parseList(result.andReturn().getResponse().getContentAsString()).get(0);
+		mockMvc.perform(get("/products/{id}", ((Map<?, ?>) id).get("id")).accept(MediaType.APPLICATION_JSON))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.name").value(valid.getName()))
+			.andExpect(jsonPath("$.categories[0].id").value(2L));
+	}
+	
+	@Test
+	public void insertBatchShouldMarkItemInvalidAndContinueWhenItemHasWrongType() throws Exception {
+		String accessToken = tokenUtil.obtainAccessToken(mockMvc, username, password);
+		String valid = objectMapper.writeValueAsString(Factory.createProductDTO());
+		String jsonBody = "[{\"name\":\"Phone\",\"price\":\"cheap\"}, 5, " + valid + "]";
+		
+		ResultActions result = mockMvc.perform(post("/products/batch").header("Authorization", "Bearer " + accessToken)
+				.content(jsonBody).contentType(MediaType.APPLICATION_JSON).accept(MediaType.APPLICATION_JSON));
+		
+		result.andExpect(status().isOk());
+		result.andExpect(jsonPath("$.length()").value(3));
+		result.andExpect(jsonPath("$[0].status").value("INVALID"));
+		result.andExpect(jsonPath("$[0].errors[0].fieldName").value("price"));
+		result.andExpect(jsonPath("$[1].status").value("INVALID"));
+		result.andExpect(jsonPath("$[2].status").value("CREATED"));
+	}
+	
+	@Test
+	public void insertBatchShouldFailOnlyRejectedItemWhenDatabaseRejectsOneRowOfChunk() throws Exception {
+		String accessToken = tokenUtil.obtainAccessToken(mockMvc, username, password);
+		ProductDTO tooLong = Factory.createProductDTO();
+		tooLong.setImgUrl("https://img.example.com/" + "x".repeat(300) + ".jpg");
+		String jsonBody = objectMapper.writeValueAsString(List.of(Factory.createProductDTO(), tooLong, Factory.createProductDTO()));
+		
+		ResultActions result = mockMvc.perform(post("/products/batch").header("Authorization", "Bearer " + accessToken)
+				.content(jsonBody).contentType(MediaType.APPLICATION_JSON).accept(MediaType.APPLICATION_JSON));
+		
+		result.andExpect(status().isOk());
+		result.andExpect(jsonPath("$.length()").value(3));
+		result.andExpect(jsonPath("$[0].status").value("CREATED"));
+		result.andExpect(jsonPath("$[0].id").exists());
+		result.andExpect(jsonPath("$[1].status").value("FAILED"));
+		result.andExpect(jsonPath("$[1].id").doesNotExist());
+		result.andExpect(jsonPath("$[1].errors.length()").value(1));
+		result.andExpect(jsonPath("$[1].errors[0].message").value(containsStringIgnoringCase("IMG_URL")));
+		result.andExpect(jsonPath("$[2].status").value("CREATED"));
+	}
+	
+	@Test
+	public void insertBatchShouldReturnBadRequestWithResultsSoFarWhenJsonIsMalformed() throws Exception {
+		String accessToken = tokenUtil.obtainAccessToken(mockMvc, username, password);
+		String valid = objectMapper.writeValueAsString(Factory.createProductDTO());
+		String jsonBody = "[" + valid + ", {\"name\": ";
+		
+		ResultActions result = mockMvc.perform(post("/products/batch").header("Authorization", "Bearer " + accessToken)
+				.content(jsonBody).contentType(MediaType.APPLICATION_JSON).accept(MediaType.APPLICATION_JSON));
+		
+		result.andExpect(status().isBadRequest());
+		result.andExpect(jsonPath("$.results.length()").value(1));
+		result.andExpect(jsonPath("$.results[0].status").value("CREATED"));
+		result.andExpect(jsonPath("$.results[0].id").exists());
+	}
+	
+	@Test
+	public void exportShouldStreamOneJsonLinePerProductWhenFormatIsNdjson() throws Exception {
+		String accessToken = tokenUtil.obtainAccessToken(mockMvc, username, password);
+		
+		MvcResult started = mockMvc.perform(get("/products/export").header("Authorization", "Bearer " + accessToken))
+				.andExpect(MockMvcResultMatchers.request().asyncStarted()).andReturn();
+		Assertions.assertEquals(1800000L, started.getRequest().getAsyncContext().getTimeout());
+		ResultActions result = mockMvc.perform(asyncDispatch(started));
+		
+		result.andExpect(status().isOk());
+		result.andExpect(MockMvcResultMatchers.content().contentType("application/x-ndjson"));
+		String[] lines = result.andReturn().getResponse().getContentAsString().split("\n");
+		Assertions.assertEquals(countTotalProducts, lines.length);
+		Map<String, Object> first = new JacksonJsonParser().parseMap(lines[0]);
+		Assertions.assertEquals(1, first.get("id"));
+		Assertions.assertEquals(1, ((List<?>) first.get("categories")).size());
+	}
+	
+	@Test
+	public void exportShouldStreamHeaderAndOneRowPerProductWhenFormatIsCsv() throws Exception {
+		String accessToken = tokenUtil.obtainAccessToken(mockMvc, username, password);
+		
+		MvcResult started = mockMvc.perform(get("/products/export?format=csv").header("Authorization", "Bearer " + accessToken))
+				.andExpect(MockMvcResultMatchers.request().asyncStarted()).andReturn();
+		ResultActions result = mockMvc.perform(asyncDispatch(started));
+		
+		result.andExpect(status().isOk());
+		String[] lines = result.andReturn().getResponse().getContentAsString().split("\n");
+		Assertions.assertEquals(countTotalProducts + 1, lines.length);
+		Assertions.assertTrue(lines[0].startsWith("id,name,"));
+		Assertions.assertTrue(lines[2].startsWith("2,Smart TV,\"Lorem ipsum dolor sit amet,"));
+		Assertions.assertTrue(lines[2].endsWith(",1;3,Livros;Computadores"));
+	}
+	
+	@Test
+	public void exportShouldReturnUnauthorizedWhenNoTokenGiven() throws Exception {
+		ResultActions result = mockMvc.perform(get("/products/export"));
+		
+		result.andExpect(status().isUnauthorized());
+	}
+	
 	@Test
 	public void updateSouldReturnProductWhenIdExists() throws Exception {
 		String accessToken = tokenUtil.obtainAccessToken(mockMvc, username, password);
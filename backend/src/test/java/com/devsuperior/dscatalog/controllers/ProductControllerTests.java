@@ -17,6 +17,7 @@ import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
+import com.devsuperior.dscatalog.dto.CursorPageDTO;
 import com.devsuperior.dscatalog.dto.ProductDTO;
 import com.devsuperior.dscatalog.services.ProductService;
 import com.devsuperior.dscatalog.services.exceptions.ControllerNotFoundException;
@@ -59,7 +60,7 @@ public class ProductControllerTests {
 		username = "maria@gmail.com";
 		password = "123456";
 
-		Mockito.when(productService.findAllPaged(ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.any())).thenReturn(page);
+		Mockito.when(productService.findAllPaged(ArgumentMatchers.anyList(), ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.any())).thenReturn(page);
 		Mockito.when(productService.findById(existingId)).thenReturn(productDTO);
 		Mockito.when(productService.findById(nonExistingId)).thenThrow(ControllerNotFoundException.class);
 		Mockito.when(productService.update(ArgumentMatchers.eq(existingId), ArgumentMatchers.any())).thenReturn(productDTO);
@@ -71,6 +72,17 @@ public class ProductControllerTests {
 		
 	}
 	
+	@Test
+	public void findAllAfterShouldClampSizeToMaxPageSizeWhenSizeIsHuge() throws Exception {
+		Mockito.when(productService.findAllAfter(ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.any(),
+				ArgumentMatchers.any(), ArgumentMatchers.anyInt())).thenReturn(new CursorPageDTO<>(List.of(productDTO), 2000, null));
+		
+		ResultActions result = mockMvc.perform(MockMvcRequestBuilders.get("/products?after=&size=" + Integer.MAX_VALUE).accept(MediaType.APPLICATION_JSON));
+		
+		result.andExpect(MockMvcResultMatchers.status().isOk());
+		Mockito.verify(productService).findAllAfter(0L, "", "id", "", 2000);
+	}
+	
 	@Test
 	public void updateShouldReturnProductDTOWhenIdExists() throws Exception {
 		String accessToken = tokenUtil.obtainAccessToken(mockMvc, username, password);
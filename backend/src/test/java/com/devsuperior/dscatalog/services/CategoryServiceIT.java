@@ -0,0 +1,85 @@
+package com.devsuperior.dscatalog.services;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import com.devsuperior.dscatalog.dto.CategoryDTO;
+import com.devsuperior.dscatalog.entities.Category;
+import com.devsuperior.dscatalog.services.exceptions.ControllerNotFoundException;
+
+@SpringBootTest
+public class CategoryServiceIT {
+	
+	private Long existingId;
+	private Long nonExistingId;
+	private Long countTotalCategories;
+	
+	@Autowired
+	private CategoryService categoryService;
+	
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+	
+	@BeforeEach
+	void setUp() throws Exception {
+		existingId = 1L;
+		nonExistingId = 1000L;
+		countTotalCategories = 3L;
+	}
+	
+	@Test
+	public void findAllPagedShouldReturnSortedPageWhenSortByName() {
+		Page<CategoryDTO> result = categoryService.findAllPaged(PageRequest.of(0, 3, Sort.by("name")));
+		
+		Assertions.assertEquals(countTotalCategories, result.getTotalElements());
+		Assertions.assertEquals("Computadores", result.getContent().get(0).getName());
+		Assertions.assertEquals("Livros", result.getContent().get(2).getName());
+	}
+	
+	@Test
+	public void findByIdShouldThrowControllerNotFoundExceptionWhenIdDoesNotExist() {
+		Assertions.assertNotNull(categoryService.findById(existingId));
+		Assertions.assertThrows(ControllerNotFoundException.class, () -> {
+			categoryService.findById(nonExistingId);
+		});
+	}
+	
+	@Test
+	public void writesShouldPublishNewSnapshotVersion() {
+		long version = categoryService.getSnapshot().getVersion();
+		
+		CategoryDTO inserted = categoryService.insert(new CategoryDTO(null, "Games"));
+		Assertions.assertEquals("Games", categoryService.findById(inserted.getId()).getName());
+		
+		categoryService.update(inserted.getId(), new CategoryDTO(null, "Video Games"));
+		Assertions.assertEquals("Video Games", categoryService.findById(inserted.getId()).getName());
+		
+		categoryService.delete(inserted.getId());
+		Assertions.assertThrows(ControllerNotFoundException.class, () -> {
+			categoryService.findById(inserted.getId());
+		});
+		Assertions.assertEquals(version + 3, categoryService.getSnapshot().getVersion());
+	}
+	
+	@Test
+	public void updateShouldLoadCategoryFromSecondLevelCacheWhenAlreadyCached() {
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		categoryService.update(existingId, new CategoryDTO(null, "Livros"));
+		statistics.clear();
+		
+		categoryService.update(existingId, new CategoryDTO(null, "Livros"));
+		
+		Assertions.assertEquals(0L, statistics.getEntityLoadCount());
+		Assertions.assertEquals(1L, statistics.getDomainDataRegionStatistics(Category.class.getName()).getHitCount());
+	}
+}
@@ -0,0 +1,42 @@
+package com.devsuperior.dscatalog.services;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.devsuperior.dscatalog.dto.CategoryDTO;
+import com.devsuperior.dscatalog.entities.Category;
+
+public class CategorySnapshotTests {
+	
+	private CategorySnapshot snapshot;
+	
+	@BeforeEach
+	void setUp() throws Exception {
+		snapshot = CategorySnapshot.of(List.of(category(1L, "Livros", 0L)));
+	}
+	
+	@Test
+	public void withShouldKeepNewerRowWhenOlderUpdateArrivesLate() {
+		CategorySnapshot result = snapshot.with(new CategoryDTO(category(1L, "Books v2", 2L)))
+				.with(new CategoryDTO(category(1L, "Books v1", 1L)));
+		
+		Assertions.assertEquals("Books v2", result.get(1L).getName());
+	}
+	
+	@Test
+	public void withShouldIgnoreUpdateWhenCategoryWasDeleted() {
+		CategorySnapshot result = snapshot.without(1L).with(new CategoryDTO(category(1L, "Books v1", 1L)));
+		
+		Assertions.assertFalse(result.contains(1L));
+	}
+	
+	private static Category category(Long id, String name, Long version) {
+		Category category = new Category(id, name);
+		ReflectionTestUtils.setField(category, "version", version);
+		return category;
+	}
+}
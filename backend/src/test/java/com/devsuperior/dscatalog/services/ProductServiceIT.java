@@ -1,5 +1,9 @@
 package com.devsuperior.dscatalog.services;
 
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Collectors;
+
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -8,9 +12,15 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
+import org.springframework.test.context.transaction.AfterTransaction;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.devsuperior.dscatalog.components.CategoryBitmapIndex;
+import com.devsuperior.dscatalog.components.ProductNameIndex;
 import com.devsuperior.dscatalog.dto.ProductDTO;
+import com.devsuperior.dscatalog.entities.Product;
+import com.devsuperior.dscatalog.repositories.CategoryRepository;
+import com.devsuperior.dscatalog.repositories.ProductFilter;
 import com.devsuperior.dscatalog.repositories.ProductRepository;
 import com.devsuperior.dscatalog.services.exceptions.ControllerNotFoundException;
 
@@ -28,6 +38,15 @@ public class ProductServiceIT {
 	@Autowired
 	private ProductRepository productRepository;
 	
+	@Autowired
+	private CategoryRepository categoryRepository;
+	
+	@Autowired
+	private ProductNameIndex productNameIndex;
+	
+	@Autowired
+	private CategoryBitmapIndex categoryBitmapIndex;
+	
 	@BeforeEach
 	void setUp() throws Exception {
 		existingId = 1L;
@@ -35,6 +54,13 @@ public class ProductServiceIT {
 		countTotalProducts = 25L;
 	}
 	
+	// Rows written by a test are rolled back, so indexes rebuilt during it must be rebuilt again
+	@AfterTransaction
+	void reloadIndexes() {
+		productNameIndex.load();
+		categoryBitmapIndex.load();
+	}
+	
 	@Test
 	public void deleteShouldDeleteResourceWhenIdExists() {
 		productService.delete(existingId);
@@ -49,6 +75,14 @@ public class ProductServiceIT {
 		});
 	}
 	
+	@Test
+	public void findByIdShouldReturnCachedProductWhenCalledTwice() {
+		ProductDTO first = productService.findById(existingId);
+		ProductDTO second = productService.findById(existingId);
+		
+		Assertions.assertSame(first, second);
+	}
+	
 	@Test
 	public void findAllPagedShouldReturnPageWhenPage0size10() {
 		PageRequest pageRequest = PageRequest.of(0, 10);
@@ -70,6 +104,39 @@ public class ProductServiceIT {
 		Assertions.assertTrue(result.isEmpty());
 	}
 	
+	@Test
+	public void findAllPagedShouldReturnMatchingProductsWhenNameGiven() {
+		PageRequest pageRequest = PageRequest.of(0, 10);
+		
+		Page<ProductDTO> result = productService.findAllPaged(0L, "gamer", pageRequest);
+		
+		Assertions.assertEquals(21L, result.getTotalElements());
+		Assertions.assertTrue(result.getContent().stream().allMatch(x -> x.getName().startsWith("PC Gamer")));
+	}
+	
+	@Test
+	public void findAllPagedShouldIncludeProductWrittenWithoutProductServiceAfterIndexReload() {
+		Product product = new Product(null, "Gamer Zeta", "Gamer", 2500.0, null, Instant.parse("2022-07-25T03:00:00Z"));
+		product.getCategories().add(categoryRepository.getOne(2L));
+		productRepository.saveAndFlush(product);
+		productNameIndex.load();
+		categoryBitmapIndex.load();
+		
+		Page<ProductDTO> result = productService.findAllPaged(0L, "gamer", PageRequest.of(0, 30));
+		
+		Assertions.assertEquals(22L, result.getTotalElements());
+		Assertions.assertTrue(result.getContent().stream().anyMatch(x -> x.getName().equals("Gamer Zeta")));
+	}
+	
+	@Test
+	public void findAllPagedShouldReturnEmptyPageWhenNameDoesNotMatch() {
+		PageRequest pageRequest = PageRequest.of(0, 10);
+		
+		Page<ProductDTO> result = productService.findAllPaged(0L, "xyz", pageRequest);
+		
+		Assertions.assertTrue(result.isEmpty());
+	}
+	
 	@Test
 	public void findAllPagedShouldReturnSrtedPageWhenSrtByName() {
 		PageRequest pageRequest = PageRequest.of(0, 10, Sort.by("name"));
@@ -81,4 +148,23 @@ public class ProductServiceIT {
 		Assertions.assertEquals("PC Gamer", result.getContent().get(1).getName());
 		Assertions.assertEquals("PC Gamer Alfa", result.getContent().get(2).getName());
 	}
+	
+	@Test
+	public void findProjectedShouldMatchEntityPathWhenSortedByName() {
+		PageRequest pageRequest = PageRequest.of(1, 10, Sort.by("name"));
+		
+		Page<Product> page = productRepository.find(null, "", pageRequest);
+		productRepository.findProductsWithCategories(page.getContent());
+		List<ProductDTO> entities = page.map(x -> new ProductDTO(x, x.getCategories())).getContent();
+		List<ProductDTO> projected = productRepository.findProjected(ProductFilter.of(List.of(), false, ""), pageRequest);
+		
+		Assertions.assertEquals(10, projected.size());
+		Assertions.assertEquals(names(entities), names(projected));
+	}
+	
+	private static List<String> names(List<ProductDTO> products) {
+		return products.stream()
+				.map(x -> x.getName() + x.getCategories().stream().map(c -> c.getName()).sorted().collect(Collectors.toList()))
+				.collect(Collectors.toList());
+	}
 }
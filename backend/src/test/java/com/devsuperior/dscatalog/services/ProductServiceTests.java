@@ -2,6 +2,7 @@ package com.devsuperior.dscatalog.services;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
@@ -11,15 +12,24 @@ import org.mockito.ArgumentMatchers;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
+import org.roaringbitmap.RoaringBitmap;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import com.devsuperior.dscatalog.components.CategoryBitmapIndex;
+import com.devsuperior.dscatalog.components.CountEstimator;
+import com.devsuperior.dscatalog.components.ProductNameIndex;
+import com.devsuperior.dscatalog.dto.CategoryDTO;
 import com.devsuperior.dscatalog.dto.ProductDTO;
+import com.devsuperior.dscatalog.entities.Category;
 import com.devsuperior.dscatalog.entities.Product;
 import com.devsuperior.dscatalog.repositories.CategoryRepository;
 import com.devsuperior.dscatalog.repositories.ProductRepository;
@@ -27,6 +37,9 @@ import com.devsuperior.dscatalog.services.exceptions.ControllerNotFoundException
 import com.devsuperior.dscatalog.services.exceptions.DatabaseException;
 import com.devsuperior.dscatalog.tests.Factory;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
 @ExtendWith(SpringExtension.class)
 public class ProductServiceTests {
 	
@@ -45,6 +58,21 @@ public class ProductServiceTests {
 	@Mock
 	private CategoryRepository categoryRepository;
 	
+	@Mock
+	private CategoryService categoryService;
+	
+	@Mock
+	private ProductNameIndex productNameIndex;
+	
+	@Mock
+	private CategoryBitmapIndex categoryBitmapIndex;
+	
+	@Mock
+	private CountEstimator countEstimator;
+	
+	@Spy
+	private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+	
 	@BeforeEach
 	void setup() throws Exception {
 		existingId = 1L;
@@ -58,8 +86,13 @@ public class ProductServiceTests {
 		Mockito.when(productRepository.save(ArgumentMatchers.any())).thenReturn(product);
 		
 		Mockito.when(productRepository.findById(existingId)).thenReturn(Optional.of(product));
+		Mockito.when(productRepository.getOne(existingId)).thenReturn(product);
+		Mockito.when(categoryRepository.getOne(3L)).thenReturn(new Category(3L, "Computadores"));
 		Mockito.when(productRepository.findById(nonExistingId)).thenReturn(Optional.empty());
 		Mockito.when(productRepository.find(ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.any())).thenReturn(page);
+		Mockito.when(productRepository.findProjected(ArgumentMatchers.any(), ArgumentMatchers.any())).thenReturn(List.of(Factory.createProductDTO()));
+		Mockito.when(categoryBitmapIndex.filter(ArgumentMatchers.anyCollection(), ArgumentMatchers.anyBoolean())).thenReturn(RoaringBitmap.bitmapOf(1));
+		ReflectionTestUtils.setField(productService, "maxCandidates", 1000);
 		
 		Mockito.doNothing().when(productRepository).deleteById(existingId);
 		Mockito.doThrow(EmptyResultDataAccessException.class).when(productRepository).deleteById(nonExistingId);
@@ -74,6 +107,103 @@ public class ProductServiceTests {
 		Assertions.assertNotNull(result);
 	}
 	
+	@Test
+	public void findAllPagedShouldReturnTotalOfShortFirstPage() {
+		Pageable pageable = PageRequest.of(0, 10);
+		Page<ProductDTO> result = productService.findAllPaged(0L, "", pageable);
+		
+		Assertions.assertEquals(1L, result.getTotalElements());
+	}
+	
+	@Test
+	public void findAllPagedShouldReadCandidatesByIdWhenIndexesCanAnswer() {
+		Mockito.when(categoryBitmapIndex.filter(List.of(3L), false)).thenReturn(RoaringBitmap.bitmapOf(1, 2, 5));
+		Mockito.when(productNameIndex.search("gamer")).thenReturn(Optional.of(Set.of(1L, 2L, 4L)));
+		
+		productService.findAllPaged(List.of(3L), CategoryMatch.ANY, "gamer", PageRequest.of(0, 10));
+		
+		Mockito.verify(productRepository).findProjected(ArgumentMatchers.argThat(x -> List.of(1L, 2L).equals(x.getIds()) && x.getName().isEmpty()), ArgumentMatchers.any());
+	}
+	
+	@Test
+	public void findAllPagedShouldCheckNameInDatabaseWhenNameIndexCannotAnswer() {
+		Mockito.when(productNameIndex.search("pc")).thenReturn(Optional.empty());
+		
+		productService.findAllPaged(List.of(), CategoryMatch.ANY, "pc", PageRequest.of(0, 10));
+		
+		Mockito.verify(productRepository).findProjected(ArgumentMatchers.argThat(x -> List.of(1L).equals(x.getIds()) && x.getName().equals("pc")), ArgumentMatchers.any());
+	}
+	
+	@Test
+	public void findAllPagedShouldCutPageFromBitmapWithoutCountWhenResultIsLargeAndSortedById() {
+		ReflectionTestUtils.setField(productService, "maxCandidates", 3);
+		Mockito.when(categoryBitmapIndex.filter(List.of(), false)).thenReturn(RoaringBitmap.bitmapOf(1, 2, 3, 4, 5, 6, 7, 8, 9, 10));
+		
+		Page<ProductDTO> result = productService.findAllPaged(List.of(), CategoryMatch.ANY, "", PageRequest.of(1, 3));
+		
+		Assertions.assertEquals(10L, result.getTotalElements());
+		Mockito.verify(productRepository).findProjected(ArgumentMatchers.argThat(x -> List.of(4L, 5L, 6L).equals(x.getIds())), ArgumentMatchers.any());
+		Mockito.verify(productRepository, Mockito.never()).countProjected(ArgumentMatchers.any());
+	}
+	
+	@Test
+	public void findFacetsShouldCountInDatabaseOverCandidatesWhenResultIsBounded() {
+		Mockito.when(categoryBitmapIndex.filter(List.of(), false)).thenReturn(RoaringBitmap.bitmapOf(1, 2));
+		
+		productService.findFacets(List.of(), CategoryMatch.ANY, "");
+		
+		Mockito.verify(productRepository).countByCategory(ArgumentMatchers.argThat(x -> List.of(1L, 2L).equals(x.getIds())));
+		Mockito.verify(categoryBitmapIndex, Mockito.never()).facets(ArgumentMatchers.any());
+	}
+	
+	@Test
+	public void findFacetsShouldCountFromBitmapsWhenListingIsAnsweredByIndexes() {
+		ReflectionTestUtils.setField(productService, "maxCandidates", 1);
+		Mockito.when(categoryBitmapIndex.filter(List.of(), false)).thenReturn(RoaringBitmap.bitmapOf(1, 2));
+		Mockito.when(categoryService.getSnapshot()).thenReturn(CategorySnapshot.EMPTY);
+		
+		productService.findFacets(List.of(), CategoryMatch.ANY, "");
+		
+		Mockito.verify(categoryBitmapIndex).facets(RoaringBitmap.bitmapOf(1, 2));
+		Mockito.verify(productRepository, Mockito.never()).countByCategory(ArgumentMatchers.any());
+	}
+	
+	@Test
+	public void findAllPagedShouldReturnEmptyPageWithoutQueryWhenNameHasNoCandidates() {
+		Mockito.when(productNameIndex.search("xyz")).thenReturn(Optional.of(Set.of()));
+		
+		Page<ProductDTO> result = productService.findAllPaged(List.of(), CategoryMatch.ANY, "xyz", PageRequest.of(0, 10));
+		
+		Assertions.assertTrue(result.isEmpty());
+		Assertions.assertEquals(0L, result.getTotalElements());
+		Mockito.verify(productRepository, Mockito.never()).findProjected(ArgumentMatchers.any(), ArgumentMatchers.any());
+	}
+	
+	@Test
+	public void findAllEstimatedShouldReturnCachedTotalWithoutCountQuery() {
+		Pageable pageable = PageRequest.of(0, 10);
+		Mockito.when(productRepository.findProjectedSlice(ArgumentMatchers.any(), ArgumentMatchers.any())).thenReturn(new SliceImpl<>(List.of(Factory.createProductDTO()), pageable, true));
+		Mockito.when(countEstimator.estimate(ArgumentMatchers.eq("products:ANY:[]:"), ArgumentMatchers.any())).thenReturn(42L);
+		
+		Page<ProductDTO> result = productService.findAllEstimated(List.of(), CategoryMatch.ANY, "", pageable);
+		
+		Assertions.assertEquals(42L, result.getTotalElements());
+		Mockito.verify(productRepository, Mockito.never()).countProjected(ArgumentMatchers.any());
+	}
+	
+	@Test
+	public void updateShouldWriteOnlyChangedCategoriesWhenIdExists() {
+		ProductDTO productDTO = Factory.createProductDTO();
+		productDTO.getCategories().add(new CategoryDTO(3L, "Computadores"));
+		
+		productService.update(existingId, productDTO);
+		
+		Mockito.verify(categoryRepository, Mockito.times(1)).getOne(3L);
+		Mockito.verify(categoryRepository, Mockito.never()).getOne(2L);
+		Assertions.assertEquals(Set.of(new Category(2L, null), new Category(3L, null)), product.getCategories());
+		Assertions.assertEquals(1.0, meterRegistry.summary("catalog.product.category.rows", "operation", "skip").totalAmount());
+	}
+	
 	@Test
 	public void deleteShouldDoNothingWhenIdExist() {
 		Assertions.assertDoesNotThrow(() -> {
@@ -0,0 +1,99 @@
+package com.devsuperior.dscatalog.services;
+
+import javax.persistence.EntityManager;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.devsuperior.dscatalog.dto.RoleDTO;
+import com.devsuperior.dscatalog.dto.UserDTO;
+import com.devsuperior.dscatalog.dto.UserInsertDTO;
+import com.devsuperior.dscatalog.entities.Role;
+import com.devsuperior.dscatalog.entities.User;
+import com.devsuperior.dscatalog.repositories.RoleRepository;
+import com.devsuperior.dscatalog.repositories.UserRepository;
+import com.devsuperior.dscatalog.services.exceptions.FieldValidationException;
+
+@SpringBootTest
+@Transactional
+public class UserServiceIT {
+	
+	private long countTotalUsers;
+	
+	@Autowired
+	private UserService userService;
+	
+	@Autowired
+	private UserRepository userRepository;
+	
+	@Autowired
+	private RoleRepository roleRepository;
+	
+	@Autowired
+	private EntityManager entityManager;
+	
+	@BeforeEach
+	void setUp() throws Exception {
+		Role operator = roleRepository.getOne(1L);
+		for (int i = 0; i < 5; i++) {
+			User user = new User(null, "User", "" + i, "user" + i + "@gmail.com", "N/A");
+			user.getRoles().add(operator);
+			userRepository.save(user);
+		}
+		countTotalUsers = 7L;
+		entityManager.flush();
+		entityManager.clear();
+		entityManager.getEntityManagerFactory().getCache().evictAll();
+	}
+	
+	@Test
+	public void findAllPagedShouldLoadRolesWithConstantStatementsWhenPageHasManyUsers() {
+		Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+		
+		Page<UserDTO> result = userService.findAllPaged(PageRequest.of(0, 5, Sort.by("firstName")));
+		
+		// Page of ids, count, then users with roles
+		Assertions.assertEquals(3L, statistics.getPrepareStatementCount());
+		Assertions.assertEquals(5, result.getNumberOfElements());
+		Assertions.assertEquals(countTotalUsers, result.getTotalElements());
+		Assertions.assertEquals("Alex", result.getContent().get(0).getFirstName());
+		Assertions.assertFalse(result.getContent().get(0).getRoles().isEmpty());
+		Assertions.assertFalse(result.getContent().get(4).getRoles().isEmpty());
+	}
+	
+	@Test
+	public void normalizeStoredEmailsShouldLetUserLogInWhenEmailWasStoredInMixedCase() {
+		User user = new User(null, "Legacy", "User", " Legacy.User@Gmail.com", "N/A");
+		userRepository.save(user);
+		entityManager.flush();
+		
+		userService.normalizeStoredEmails();
+		
+		Assertions.assertEquals("Legacy", ((User) userService.loadUserByUsername("legacy.user@gmail.com")).getFirstName());
+	}
+	
+	@Test
+	public void insertShouldThrowFieldValidationExceptionWhenEmailTakenAfterValidation() {
+		UserInsertDTO dto = new UserInsertDTO();
+		dto.setFirstName("Maria");
+		dto.setLastName("Again");
+		dto.setEmail("MARIA@gmail.com");
+		dto.setPassword("123456");
+		dto.getRoles().add(new RoleDTO(1L, "ROLE_OPERATOR"));
+		
+		FieldValidationException e = Assertions.assertThrows(FieldValidationException.class, () -> {
+			userService.insert(dto);
+		});
+		Assertions.assertEquals("email", e.getFieldName());
+	}
+}
@@ -0,0 +1,36 @@
+package com.devsuperior.dscatalog.tests;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.common.DefaultOAuth2AccessToken;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.OAuth2Request;
+import org.springframework.security.oauth2.provider.token.store.JwtAccessTokenConverter;
+
+public class TokenFactory {
+	
+	public static JwtAccessTokenConverter createConverter() throws Exception {
+		JwtAccessTokenConverter converter = new JwtAccessTokenConverter();
+		converter.setSigningKey("MY-JWT-SECRET");
+		converter.afterPropertiesSet();
+		return converter;
+	}
+	
+	public static String createEncodedToken(JwtAccessTokenConverter converter, String username, long secondsToExpire) {
+		List<GrantedAuthority> authorities = List.of(new SimpleGrantedAuthority("ROLE_OPERATOR"));
+		OAuth2Request request = new OAuth2Request(Map.of(), "myclientid", authorities, true, Set.of("read", "write"),
+				Set.of(), null, Set.of(), Map.of());
+		OAuth2Authentication authentication = new OAuth2Authentication(request,
+				new UsernamePasswordAuthenticationToken(username, "N/A", authorities));
+		DefaultOAuth2AccessToken token = new DefaultOAuth2AccessToken(UUID.randomUUID().toString());
+		token.setExpiration(new Date(System.currentTimeMillis() + secondsToExpire * 1000));
+		return converter.enhance(token, authentication).getValue();
+	}
+}